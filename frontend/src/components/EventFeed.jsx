@@ -1,5 +1,5 @@
 import React, { useEffect, useLayoutEffect, useMemo, useRef, useState } from "react";
-import { fetchEvents } from "../lib/player";
+import { fetchEvents, eventStreamUrl } from "../lib/player";
 import { Button } from "./ui/button";
 import { Badge } from "./ui/badge";
 
@@ -9,6 +9,8 @@ import { Badge } from "./ui/badge";
 
 export default function EventFeed({ sessionId, title = "Events", limit = 5, pollMs = 1500 }) {
   const MAX_ITEMS = 15;
+  // Fallback when SSE is blocked: the server parks the request until the next event.
+  const LONG_POLL_MS = 25000;
   const isSmall = useMemo(() => {
     try {
       return window.matchMedia && window.matchMedia("(max-width: 520px)").matches;
@@ -36,60 +38,105 @@ export default function EventFeed({ sessionId, title = "Events", limit = 5, poll
   }, [isSmall]);
 
   const [events, setEvents] = useState([]);
-  const [lastSeq, setLastSeq] = useState(0);
+  // Ref instead of state: the long-poll loop must always resume from the newest seq.
+  const lastSeqRef = useRef(0);
   const [err, setErr] = useState(null);
 
+  // True while the push stream (SSE) is connected; polling only runs as a fallback.
+  const [streaming, setStreaming] = useState(false);
+  // Long-polling starts from the seq of the initial load.
+  const [loaded, setLoaded] = useState(false);
+
   async function loadInitial() {
-    if (!sessionId) return;
+    if (!sessionId) return null;
     try {
       setErr(null);
       const data = await fetchEvents(sessionId, null, Math.min(MAX_ITEMS, Math.max(limit, 10)));
       setEvents(data);
       const max = data.reduce((m, e) => Math.max(m, Number(e?.seq || 0)), 0);
-      setLastSeq(max);
+      lastSeqRef.current = max;
+      return max;
     } catch (e) {
       setErr(e?.message || "Event feed failed");
+      return null;
     }
   }
 
-  async function poll() {
-    if (!sessionId) return;
+  function appendEvents(data) {
+    if (!data || data.length === 0) return;
+    setEvents((prev) => {
+      const merged = [...(prev || []), ...data];
+      // De-dup by seq
+      const bySeq = new Map();
+      for (const e of merged) {
+        if (!e) continue;
+        bySeq.set(Number(e.seq), e);
+      }
+      const arr = Array.from(bySeq.values()).sort((a, b) => Number(a.seq) - Number(b.seq));
+      // Keep only the newest MAX_ITEMS
+      return arr.slice(-MAX_ITEMS);
+    });
+    lastSeqRef.current = data.reduce((m, e) => Math.max(m, Number(e?.seq || 0)), lastSeqRef.current || 0);
+  }
+
+  // Returns false on failure so the loop can back off instead of hammering the server.
+  async function poll(signal) {
+    if (!sessionId) return true;
     try {
+      const data = await fetchEvents(sessionId, lastSeqRef.current || 0, null, { waitMs: LONG_POLL_MS, signal });
       setErr(null);
-      const data = await fetchEvents(sessionId, lastSeq || 0, null);
-      if (!data || data.length === 0) return;
-      setEvents((prev) => {
-        const merged = [...(prev || []), ...data];
-        // De-dup by seq
-        const bySeq = new Map();
-        for (const e of merged) {
-          if (!e) continue;
-          bySeq.set(Number(e.seq), e);
-        }
-        const arr = Array.from(bySeq.values()).sort((a, b) => Number(a.seq) - Number(b.seq));
-        // Keep only the newest MAX_ITEMS
-        return arr.slice(-MAX_ITEMS);
-      });
-      const max = data.reduce((m, e) => Math.max(m, Number(e?.seq || 0)), lastSeq || 0);
-      setLastSeq(max);
+      appendEvents(data);
+      return true;
     } catch (e) {
+      if (signal.aborted) return true;
       // non-fatal
       setErr(e?.message || "Event feed failed");
+      return false;
     }
   }
 
   useEffect(() => {
     if (!sessionId) return;
-    loadInitial();
+    let es = null;
+    let closed = false;
+    loadInitial().then((seq) => {
+      if (closed) return;
+      setLoaded(true);
+      if (typeof EventSource === "undefined") return;
+      es = new EventSource(eventStreamUrl(sessionId, seq));
+      es.onopen = () => {
+        setErr(null);
+        setStreaming(true);
+      };
+      es.onmessage = (msg) => {
+        try {
+          appendEvents([JSON.parse(msg.data)]);
+        } catch {}
+      };
+      // EventSource reconnects on its own (with Last-Event-ID); poll until it is back.
+      es.onerror = () => setStreaming(false);
+    });
+    return () => {
+      closed = true;
+      setLoaded(false);
+      setStreaming(false);
+      if (es) es.close();
+    };
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, [sessionId]);
 
   useEffect(() => {
-    if (!sessionId) return;
-    const t = setInterval(poll, pollMs);
-    return () => clearInterval(t);
+    if (!sessionId || !loaded || streaming) return;
+    const ctrl = new AbortController();
+    (async () => {
+      while (!ctrl.signal.aborted) {
+        const ok = await poll(ctrl.signal);
+        if (!ok) await new Promise((r) => setTimeout(r, pollMs));
+      }
+    })();
+    return () => ctrl.abort();
     // eslint-disable-next-line react-hooks/exhaustive-deps
-  }, [sessionId, lastSeq, pollMs]);
+  }, [sessionId, pollMs, loaded, streaming]);
 
   function toggle() {
     const next = !open;
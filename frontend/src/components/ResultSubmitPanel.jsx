@@ -6,7 +6,7 @@ import { getSession } from "../lib/session";
 import { getPlayer } from "../lib/player";
 import { useMinigameResultToast } from "./MinigameResultToastProvider";
 
-import { API_BASE } from "../lib/api";
+import { API_BASE, fetchIdempotent } from "../lib/api";
 
 async function parseJsonOrThrow(res) {
   let data = null;
@@ -92,7 +92,7 @@ export default function ResultSubmitPanel({
         errors,
       };
 
-      const res = await fetch(`${API_BASE}/scores`, {
+      const res = await fetchIdempotent(`${API_BASE}/scores`, {
         method: "POST",
         headers: { "Content-Type": "application/json" },
         body: JSON.stringify(payload),
@@ -4,3 +4,23 @@
 // Dev: Vite proxies /api -> http://localhost:8080 (see vite.config.js).
 
 export const API_BASE = (import.meta.env?.VITE_API_BASE || "/api").replace(/\/$/, "");
+
+// Mutating game actions (dice, path choice, score, special card, lobby roll) send an
+// Idempotency-Key. A request repeated after a dropped connection reuses the key, and the
+// server answers with the original result instead of acting twice.
+export async function fetchIdempotent(url, init = {}, retries = 2) {
+  const headers = { ...(init.headers || {}), "Idempotency-Key": newIdempotencyKey() };
+  for (let attempt = 0; ; attempt++) {
+    try {
+      return await fetch(url, { ...init, headers });
+    } catch (e) {
+      // Network error: the server may or may not have acted; the key makes the retry safe.
+      if (attempt >= retries) throw e;
+    }
+  }
+}
+
+function newIdempotencyKey() {
+  if (globalThis.crypto?.randomUUID) return globalThis.crypto.randomUUID();
+  return `${Date.now().toString(36)}-${Math.random().toString(36).slice(2)}`;
+}
@@ -0,0 +1,82 @@
+import { API_BASE } from "./api";
+
+// Lobby state push channel (WebSocket). The server sends one snapshot on connect and
+// then deltas: { type: "delta", rev, changes, players, removedPlayerIds, playerOrder }.
+// On a rev gap or a dropped connection we reconnect and start over from a fresh snapshot.
+
+function lobbySocketUrl(sessionId) {
+  const url = new URL(`${API_BASE}/sessions/${encodeURIComponent(sessionId)}/lobby/ws`, window.location.href);
+  url.protocol = url.protocol === "https:" ? "wss:" : "ws:";
+  return url.toString();
+}
+
+function applyDelta(state, delta) {
+  const next = { ...state, ...(delta.changes || {}) };
+  const prevPlayers = Array.isArray(state.players) ? state.players : [];
+  const byId = new Map(prevPlayers.map((p) => [p.id, p]));
+  for (const id of delta.removedPlayerIds || []) byId.delete(id);
+  for (const p of delta.players || []) byId.set(p.id, { ...(byId.get(p.id) || {}), ...p });
+  const order = Array.isArray(delta.playerOrder) ? delta.playerOrder : prevPlayers.map((p) => p.id);
+  next.players = order.map((id) => byId.get(id)).filter(Boolean);
+  return next;
+}
+
+// Returns an unsubscribe function. onState receives the full (merged) LobbyState,
+// onConnected(true/false) lets callers pause their polling fallback.
+export function subscribeLobby(sessionId, onState, onConnected) {
+  if (!sessionId || typeof WebSocket === "undefined") return () => {};
+
+  let ws = null;
+  let state = null;
+  let rev = 0;
+  let stopped = false;
+  let retryMs = 1000;
+  let retryTimer = null;
+
+  function connect() {
+    if (stopped) return;
+    ws = new WebSocket(lobbySocketUrl(sessionId));
+
+    ws.onmessage = (evt) => {
+      let msg = null;
+      try {
+        msg = JSON.parse(evt.data);
+      } catch {
+        return;
+      }
+      if (msg?.type === "snapshot") {
+        state = msg.state;
+        rev = Number(msg.rev || 0);
+        retryMs = 1000;
+        onConnected?.(true);
+        onState(state);
+        return;
+      }
+      if (msg?.type === "delta" && state) {
+        if (Number(msg.rev) !== rev + 1) {
+          // Missed an update: resync from a fresh snapshot.
+          ws.close();
+          return;
+        }
+        rev = Number(msg.rev);
+        state = applyDelta(state, msg);
+        onState(state);
+      }
+    };
+
+    ws.onclose = () => {
+      state = null;
+      onConnected?.(false);
+      if (stopped) return;
+      retryTimer = setTimeout(connect, retryMs);
+      retryMs = Math.min(retryMs * 2, 15000);
+    };
+  }
+
+  connect();
+  return () => {
+    stopped = true;
+    if (retryTimer) clearTimeout(retryTimer);
+    if (ws) ws.close();
+  };
+}
@@ -1,4 +1,4 @@
-import { API_BASE } from "./api";
+import { API_BASE, fetchIdempotent } from "./api";
 
 const STORAGE_PID = "cc_playerId";
 const STORAGE_PNAME = "cc_playerName";
@@ -77,7 +77,7 @@ export async function fetchLobby(sessionId) {
 }
 
 export async function rollLobbyD20(sessionId, playerId) {
-  const res = await fetch(`${API_BASE}/sessions/${encodeURIComponent(sessionId)}/lobby/roll?playerId=${encodeURIComponent(playerId)}`, {
+  const res = await fetchIdempotent(`${API_BASE}/sessions/${encodeURIComponent(sessionId)}/lobby/roll?playerId=${encodeURIComponent(playerId)}`, {
     method: "POST",
   });
   const data = await parseJsonOrThrow(res);
@@ -85,7 +85,7 @@ export async function rollLobbyD20(sessionId, playerId) {
 }
 
 export async function rollTurnD6(sessionId, playerId) {
-  const res = await fetch(
+  const res = await fetchIdempotent(
     `${API_BASE}/turn/rollD6?sessionId=${encodeURIComponent(sessionId)}&playerId=${encodeURIComponent(playerId)}`,
     { method: "POST" }
   );
@@ -94,7 +94,7 @@ export async function rollTurnD6(sessionId, playerId) {
 }
 
 export async function chooseTurnPath(sessionId, playerId, toNodeId) {
-  const res = await fetch(
+  const res = await fetchIdempotent(
     `${API_BASE}/turn/choosePath?sessionId=${encodeURIComponent(sessionId)}&playerId=${encodeURIComponent(playerId)}&toNodeId=${encodeURIComponent(toNodeId)}`,
     { method: "POST" }
   );
@@ -110,7 +110,7 @@ export async function applySpecialCard(sessionId, playerId, card, targetPlayerId
   qs.set("card", String(card));
   if (targetPlayerId) qs.set("targetPlayerId", String(targetPlayerId));
   if (boostToNodeId) qs.set("boostToNodeId", String(boostToNodeId));
-  const res = await fetch(`${API_BASE}/special/apply?${qs.toString()}`, {
+  const res = await fetchIdempotent(`${API_BASE}/special/apply?${qs.toString()}`, {
     method: "POST",
   });
 
@@ -137,11 +137,21 @@ export async function startTurnChallenge(sessionId, playerId, category) {
 }
 
 // Phase 3: poll game events for a session.
-export async function fetchEvents(sessionId, afterSeq, limit) {
+// With waitMs the server holds the request until a newer event exists (long-poll) or returns [] after waitMs.
+export async function fetchEvents(sessionId, afterSeq, limit, { waitMs, signal } = {}) {
   const qs = new URLSearchParams();
   if (afterSeq != null) qs.set("afterSeq", String(afterSeq));
   if (limit != null) qs.set("limit", String(limit));
-  const res = await fetch(`${API_BASE}/sessions/${encodeURIComponent(sessionId)}/events?${qs.toString()}`);
+  if (waitMs != null) qs.set("waitMs", String(waitMs));
+  const res = await fetch(`${API_BASE}/sessions/${encodeURIComponent(sessionId)}/events?${qs.toString()}`, { signal });
   const data = await parseJsonOrThrow(res);
   return Array.isArray(data) ? data : [];
 }
+
+// Push variant of fetchEvents (Server-Sent Events). Resumes after afterSeq;
+// EventSource itself resumes via Last-Event-ID on reconnect.
+export function eventStreamUrl(sessionId, afterSeq) {
+  const qs = new URLSearchParams();
+  if (afterSeq != null) qs.set("afterSeq", String(afterSeq));
+  return `${API_BASE}/sessions/${encodeURIComponent(sessionId)}/events/stream?${qs.toString()}`;
+}
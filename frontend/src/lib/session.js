@@ -42,8 +42,10 @@ async function parseJsonOrThrow(res) {
   return data;
 }
 
-export async function createSession() {
-  const res = await fetch(`${API_BASE}/sessions`, { method: "POST" });
+// boardId is optional; without it the server's default board is used.
+export async function createSession(boardId) {
+  const query = boardId ? `?boardId=${encodeURIComponent(boardId)}` : "";
+  const res = await fetch(`${API_BASE}/sessions${query}`, { method: "POST" });
   const data = await parseJsonOrThrow(res);
   sessionStorage.setItem(STORAGE_ID, data.id);
   sessionStorage.setItem(STORAGE_CODE, data.code || "");
@@ -5,6 +5,7 @@ import { Badge } from "../components/ui/badge";
 import { Button } from "../components/ui/button";
 import QRCode from "react-qr-code";
 import { getSession, clearSession, setSessionStarted } from "../lib/session";
+import { subscribeLobby } from "../lib/lobbySocket";
 import { getPlayer, fetchLobby, setReady, leaveSession, clearPlayer, rollLobbyD20 } from "../lib/player";
 import D20Die from "../components/D20Die";
 import { useDiceOverlay } from "../components/dice/DiceOverlayProvider";
@@ -27,6 +28,8 @@ export default function Lobby() {
 
   // Floating player bubbles (no-scroll lobby)
   const cloudRef = useRef(null);
+  // True while the lobby socket delivers state; the poll loop then stays idle.
+  const socketLiveRef = useRef(false);
 
   const canView = !!(session?.sessionId && me?.playerId);
   const joinUrl = session?.sessionCode ? `${window.location.origin}/join/${session.sessionCode}` : "";
@@ -41,36 +44,40 @@ export default function Lobby() {
     return (h >>> 0);
   };
 
-  async function load() {
-    if (!session?.sessionId) return;
-    setErr(null);
-    try {
-      const s = await fetchLobby(session.sessionId);
-      setState(s);
+  function applyLobbyState(s) {
+    setState(s);
 
-      // Keep a lightweight shared flag so the bottom tab can switch between Lobby/Play.
-      setSessionStarted(!!s?.started);
+    // Keep a lightweight shared flag so the bottom tab can switch between Lobby/Play.
+    setSessionStarted(!!s?.started);
 
-      if (s?.sessionStatus === "FINISHED") {
-        nav("/end", { replace: true });
-        return;
-      }
+    if (s?.sessionStatus === "FINISHED") {
+      nav("/end", { replace: true });
+      return;
+    }
 
-      // Lightweight event display (e.g. player left)
-      if (s?.lastEventSeq && s?.lastEventMessage) {
-        const key = `cc_evt_${session.sessionId}`;
-        const lastSeen = Number(sessionStorage.getItem(key) || "0");
-        if (s.lastEventSeq > lastSeen) {
-          sessionStorage.setItem(key, String(s.lastEventSeq));
-          setEventMsg(s.lastEventMessage);
-          setTimeout(() => setEventMsg(null), 4500);
-        }
+    // Lightweight event display (e.g. player left)
+    if (s?.lastEventSeq && s?.lastEventMessage) {
+      const key = `cc_evt_${session.sessionId}`;
+      const lastSeen = Number(sessionStorage.getItem(key) || "0");
+      if (s.lastEventSeq > lastSeen) {
+        sessionStorage.setItem(key, String(s.lastEventSeq));
+        setEventMsg(s.lastEventMessage);
+        setTimeout(() => setEventMsg(null), 4500);
       }
+    }
 
-      // Once started, lobby is done -> go to play.
-      if (s?.started) {
-        nav("/play");
-      }
+    // Once started, lobby is done -> go to play.
+    if (s?.started) {
+      nav("/play");
+    }
+  }
+
+  async function load() {
+    if (!session?.sessionId) return;
+    setErr(null);
+    try {
+      const s = await fetchLobby(session.sessionId);
+      applyLobbyState(s);
     } catch (e) {
       setErr(e?.message || "Failed to load lobby");
     }
@@ -79,8 +86,17 @@ export default function Lobby() {
   useEffect(() => {
     if (!canView) return;
     load();
-    const t = setInterval(load, 1500);
-    return () => clearInterval(t);
+    // Lobby state is pushed over the socket; poll only while it is disconnected.
+    const unsubscribe = subscribeLobby(session.sessionId, applyLobbyState, (live) => {
+      socketLiveRef.current = live;
+    });
+    const t = setInterval(() => {
+      if (!socketLiveRef.current) load();
+    }, 1500);
+    return () => {
+      clearInterval(t);
+      unsubscribe();
+    };
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, []);
 
@@ -1,10 +1,11 @@
-import React, { useEffect, useMemo, useState } from "react";
+import React, { useEffect, useMemo, useRef, useState } from "react";
 import { createPortal } from "react-dom";
 import { useNavigate } from "react-router-dom";
 import AppShell from "../components/AppShell";
 import { Button } from "../components/ui/button";
 import { Badge } from "../components/ui/badge";
 import { getSession, clearSession, setSessionStarted } from "../lib/session";
+import { subscribeLobby } from "../lib/lobbySocket";
 import { getPlayer, fetchLobby, leaveSession, clearPlayer, rollTurnD6, chooseTurnPath, startTurnChallenge, applySpecialCard } from "../lib/player";
 import D6Die from "../components/D6Die";
 import EventFeed from "../components/EventFeed";
@@ -35,6 +36,9 @@ export default function Play() {
 
   const [mapOpen, setMapOpen] = useState(false);
 
+  // True while the lobby socket delivers state; the poll loop then stays idle.
+  const socketLiveRef = useRef(false);
+
   const canView = !!(session?.sessionId && me?.playerId);
 
   // Reset per-card sub-selections when switching card.
@@ -52,46 +56,49 @@ export default function Play() {
     return () => window.removeEventListener("keydown", onKeyDown);
   }, [mapOpen]);
 
-  async function load() {
-    if (!session?.sessionId) return;
-    setErr(null);
-    try {
-      const s = await fetchLobby(session.sessionId);
-      setState(s);
+  function applyLobbyState(s) {
+    setState(s);
 
-      // Keep a lightweight shared flag so the bottom tab can switch between Lobby/Play.
-      setSessionStarted(!!s?.started);
+    // Keep a lightweight shared flag so the bottom tab can switch between Lobby/Play.
+    setSessionStarted(!!s?.started);
 
-      // If the match is finished, go to endscreen.
-      if (s?.sessionStatus === "FINISHED") {
-        nav("/end", { replace: true });
-        return;
-      }
+    // If the match is finished, go to endscreen.
+    if (s?.sessionStatus === "FINISHED") {
+      nav("/end", { replace: true });
+      return;
+    }
 
-      // If the session is no longer waiting for a path choice, clear any stale local UI.
-      if (s?.turnStatus !== "AWAITING_PATH_CHOICE") {
-        setPendingChoices(null);
-      }
+    // If the session is no longer waiting for a path choice, clear any stale local UI.
+    if (s?.turnStatus !== "AWAITING_PATH_CHOICE") {
+      setPendingChoices(null);
+    }
 
-      // Sync pending fork choices on refresh/polling.
-      if (s?.turnStatus === "AWAITING_PATH_CHOICE" && s?.pendingForkNodeId) {
-        const opts = Array.isArray(s?.pendingForkOptions) ? s.pendingForkOptions : null;
-        setPendingChoices((prev) => {
-          // Keep existing options if we already have them, otherwise take from lobby payload.
-          if (prev && prev.forkNodeId === s.pendingForkNodeId) {
-            if ((!prev.options || prev.options.length === 0) && opts && opts.length) {
-              return { ...prev, remainingSteps: s.pendingRemainingSteps, options: opts };
-            }
-            return { ...prev, remainingSteps: s.pendingRemainingSteps };
+    // Sync pending fork choices on refresh/polling.
+    if (s?.turnStatus === "AWAITING_PATH_CHOICE" && s?.pendingForkNodeId) {
+      const opts = Array.isArray(s?.pendingForkOptions) ? s.pendingForkOptions : null;
+      setPendingChoices((prev) => {
+        // Keep existing options if we already have them, otherwise take from lobby payload.
+        if (prev && prev.forkNodeId === s.pendingForkNodeId) {
+          if ((!prev.options || prev.options.length === 0) && opts && opts.length) {
+            return { ...prev, remainingSteps: s.pendingRemainingSteps, options: opts };
           }
-          return { forkNodeId: s.pendingForkNodeId, remainingSteps: s.pendingRemainingSteps, options: opts || [] };
-        });
-      } else {
-        setPendingChoices(null);
-      }
+          return { ...prev, remainingSteps: s.pendingRemainingSteps };
+        }
+        return { forkNodeId: s.pendingForkNodeId, remainingSteps: s.pendingRemainingSteps, options: opts || [] };
+      });
+    } else {
+      setPendingChoices(null);
+    }
 
-      // Options are now included in lobby payload (pendingForkOptions) so refresh is safe.
+    // Options are now included in lobby payload (pendingForkOptions) so refresh is safe.
+  }
 
+  async function load() {
+    if (!session?.sessionId) return;
+    setErr(null);
+    try {
+      const s = await fetchLobby(session.sessionId);
+      applyLobbyState(s);
     } catch (e) {
       setErr(e?.message || "Failed to load game state");
     }
@@ -100,8 +107,17 @@ export default function Play() {
   useEffect(() => {
     if (!canView) return;
     load();
-    const t = setInterval(load, 1500);
-    return () => clearInterval(t);
+    // Lobby state is pushed over the socket; poll only while it is disconnected.
+    const unsubscribe = subscribeLobby(session.sessionId, applyLobbyState, (live) => {
+      socketLiveRef.current = live;
+    });
+    const t = setInterval(() => {
+      if (!socketLiveRef.current) load();
+    }, 1500);
+    return () => {
+      clearInterval(t);
+      unsubscribe();
+    };
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, []);
 
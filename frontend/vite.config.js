@@ -13,6 +13,8 @@ export default defineConfig({
       '/api': {
         target: 'http://localhost:8080',
         changeOrigin: true,
+        // Lobby state socket (/api/sessions/{id}/lobby/ws)
+        ws: true,
       },
     },
   },
@@ -6,4 +6,7 @@ import lombok.Data;
 public class BoardEdgeDef {
     private String from;
     private String to;
+
+    // Button text when "from" is a fork (e.g. "Take shortcut"); forks list their edges in display order.
+    private String label;
 }
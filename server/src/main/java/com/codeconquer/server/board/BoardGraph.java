@@ -2,61 +2,252 @@ package com.codeconquer.server.board;
 
 import com.codeconquer.server.model.BoardNodeType;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
- * Runtime representation of the board.
+ * Runtime representation of the board, compiled from a {@link BoardGraphDefinition}.
+ *
+ * Nodes get dense int indexes (definition order). Types live in a byte[] and outgoing edges
+ * in compressed-sparse-row form: the targets of node i are edgeTo[edgeStart[i] .. edgeStart[i + 1]).
+ * String ids are only translated at the API boundary ({@link #indexOf}, {@link #idOf}), so
+ * movement over the int form neither hashes nor allocates.
+ *
+ * The outcome of every (node, roll) pair is precomputed at compile time ({@link #move}), so
+ * a dice move is a single array read; compiling a changed definition rebuilds the table.
+ * A {@link BoardSnapshot} carries the table along, so loading one skips that step.
+ *
+ * Immutable once compiled.
  */
 public class BoardGraph {
 
+    /** Largest number of steps a turn can move (D6; Second Chance keeps the higher of two D6). */
+    public static final int MAX_ROLL = 6;
+
+    private static final BoardNodeType[] TYPES = BoardNodeType.values();
+
     private final BoardGraphDefinition definition;
-    private final Map<String, BoardNodeType> nodeTypeById;
-    private final Map<String, List<String>> outgoingById;
-    private final String startNodeId;
-    private final String finishNodeId;
-    private final String jailNodeId;
-
-    public BoardGraph(BoardGraphDefinition definition,
-                      Map<String, BoardNodeType> nodeTypeById,
-                      Map<String, List<String>> outgoingById,
-                      String startNodeId,
-                      String finishNodeId,
-                      String jailNodeId) {
+    private final String[] ids;
+    private final Map<String, Integer> indexById;
+    private final byte[] types;
+    private final int[] edgeStart;
+    private final int[] edgeTo;
+    // String view of the adjacency for callers working with ids; shared, unmodifiable.
+    private final List<String>[] outgoingIds;
+    private final int start;
+    private final int finish;
+    private final int jail;
+    // walk(node, steps) for steps 0..MAX_ROLL, at node * (MAX_ROLL + 1) + steps.
+    private final long[] moves;
+
+    private BoardGraph(BoardGraphDefinition definition, String[] ids, Map<String, Integer> indexById,
+                       byte[] types, int[] edgeStart, int[] edgeTo, List<String>[] outgoingIds,
+                       int start, int finish, int jail, long[] moves) {
         this.definition = definition;
-        this.nodeTypeById = nodeTypeById;
-        this.outgoingById = outgoingById;
-        this.startNodeId = startNodeId;
-        this.finishNodeId = finishNodeId;
-        this.jailNodeId = jailNodeId;
+        this.ids = ids;
+        this.indexById = indexById;
+        this.types = types;
+        this.edgeStart = edgeStart;
+        this.edgeTo = edgeTo;
+        this.outgoingIds = outgoingIds;
+        this.start = start;
+        this.finish = finish;
+        this.jail = jail;
+        if (moves != null) {
+            if (moves.length != ids.length * (MAX_ROLL + 1)) throw new IllegalStateException("move table size mismatch");
+            this.moves = moves;
+            return;
+        }
+        this.moves = new long[ids.length * (MAX_ROLL + 1)];
+        for (int node = 0; node < ids.length; node++) {
+            for (int steps = 0; steps <= MAX_ROLL; steps++) {
+                this.moves[node * (MAX_ROLL + 1) + steps] = walk(node, steps);
+            }
+        }
     }
 
-    public BoardGraphDefinition getDefinition() {
-        return definition;
+    /**
+     * Compiles a validated definition. Edges keep their definition order per source node.
+     */
+    public static BoardGraph compile(BoardGraphDefinition def) {
+        return compile(def, null);
     }
 
-    public Map<String, BoardNodeType> getNodeTypeById() {
-        return nodeTypeById;
+    /**
+     * Compiles with a move table taken from a snapshot instead of recomputing it.
+     */
+    @SuppressWarnings("unchecked")
+    static BoardGraph compile(BoardGraphDefinition def, long[] moves) {
+        int n = def.getNodes().size();
+        String[] ids = new String[n];
+        byte[] types = new byte[n];
+        Map<String, Integer> indexById = new HashMap<>(n * 2);
+        int start = -1;
+        int finish = -1;
+        int jail = -1;
+        for (int i = 0; i < n; i++) {
+            BoardNodeDef node = def.getNodes().get(i);
+            ids[i] = node.getId();
+            types[i] = (byte) node.getType().ordinal();
+            indexById.put(node.getId(), i);
+            if (node.getType() == BoardNodeType.START && start < 0) start = i;
+            if (node.getType() == BoardNodeType.FINISH && finish < 0) finish = i;
+            if (node.getType() == BoardNodeType.JAIL && jail < 0) jail = i;
+        }
+        if (start < 0) throw new IllegalStateException("START node missing");
+        if (finish < 0) throw new IllegalStateException("FINISH node missing");
+
+        // Count, prefix-sum, fill.
+        List<BoardEdgeDef> edges = def.getEdges();
+        int[] edgeStart = new int[n + 1];
+        for (BoardEdgeDef e : edges) edgeStart[indexById.get(e.getFrom()) + 1]++;
+        for (int i = 0; i < n; i++) edgeStart[i + 1] += edgeStart[i];
+        int[] edgeTo = new int[edges.size()];
+        int[] fill = Arrays.copyOf(edgeStart, n);
+        for (BoardEdgeDef e : edges) edgeTo[fill[indexById.get(e.getFrom())]++] = indexById.get(e.getTo());
+
+        List<String>[] outgoingIds = new List[n];
+        for (int i = 0; i < n; i++) {
+            String[] targets = new String[edgeStart[i + 1] - edgeStart[i]];
+            for (int k = 0; k < targets.length; k++) targets[k] = ids[edgeTo[edgeStart[i] + k]];
+            outgoingIds[i] = List.of(targets);
+        }
+
+        return new BoardGraph(def, ids, Collections.unmodifiableMap(indexById), types,
+                edgeStart, edgeTo, outgoingIds, start, finish, jail, moves);
+    }
+
+    public BoardGraphDefinition getDefinition() {
+        return definition;
     }
 
     public String getStartNodeId() {
-        return startNodeId;
+        return ids[start];
     }
 
     public String getFinishNodeId() {
-        return finishNodeId;
+        return ids[finish];
     }
 
     public String getJailNodeId() {
-        return jailNodeId;
+        return jail < 0 ? null : ids[jail];
     }
 
     public BoardNodeType getType(String nodeId) {
-        return nodeTypeById.get(nodeId);
+        int i = indexOf(nodeId);
+        return i < 0 ? null : typeOf(i);
     }
 
     public List<String> outgoing(String fromId) {
-        return outgoingById.getOrDefault(fromId, Collections.emptyList());
+        int i = indexOf(fromId);
+        return i < 0 ? Collections.emptyList() : outgoingIds[i];
+    }
+
+    // --- int form ---
+
+    public int nodeCount() {
+        return ids.length;
+    }
+
+    /**
+     * Index of a node id, or -1 if the board has no such node.
+     */
+    public int indexOf(String nodeId) {
+        if (nodeId == null) return -1;
+        Integer i = indexById.get(nodeId);
+        return i == null ? -1 : i;
+    }
+
+    public String idOf(int node) {
+        return ids[node];
+    }
+
+    public BoardNodeType typeOf(int node) {
+        return TYPES[types[node]];
+    }
+
+    public int startIndex() {
+        return start;
+    }
+
+    public int finishIndex() {
+        return finish;
+    }
+
+    /**
+     * Index of the JAIL node, or -1 if the board has none.
+     */
+    public int jailIndex() {
+        return jail;
+    }
+
+    public int outDegree(int node) {
+        return edgeStart[node + 1] - edgeStart[node];
+    }
+
+    /**
+     * The k-th outgoing target of a node (0 <= k < outDegree).
+     */
+    public int target(int node, int k) {
+        return edgeTo[edgeStart[node] + k];
+    }
+
+    public boolean hasEdge(int from, int to) {
+        for (int e = edgeStart[from]; e < edgeStart[from + 1]; e++) {
+            if (edgeTo[e] == to) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Moves up to {@code steps} steps from {@code from} along single-path edges, the way a
+     * dice roll moves a token. Stops early:
+     * at a fork with steps left (before leaving it), at a dead end, when standing on FINISH,
+     * or right after landing on SPECIAL, JAIL or FINISH.
+     *
+     * Returns the stop packed as {@code remaining << 32 | node}; see {@link #stopNode} and
+     * {@link #stopRemaining}.
+     */
+    public long walk(int from, int steps) {
+        int cur = from;
+        int remaining = steps;
+        while (remaining > 0) {
+            if (types[cur] == BoardNodeType.FINISH.ordinal()) break;
+            int degree = outDegree(cur);
+            if (degree != 1) break; // fork (caller decides) or dead end
+            cur = edgeTo[edgeStart[cur]];
+            remaining--;
+            if (isLandingStop(cur)) break;
+        }
+        return ((long) remaining << 32) | (cur & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Same result as {@link #walk}, read from the precomputed table for 0..MAX_ROLL steps.
+     */
+    public long move(int from, int steps) {
+        if (steps < 0 || steps > MAX_ROLL) return walk(from, steps);
+        return moves[from * (MAX_ROLL + 1) + steps];
+    }
+
+    public static int stopNode(long stop) {
+        return (int) stop;
+    }
+
+    public static int stopRemaining(long stop) {
+        return (int) (stop >>> 32);
+    }
+
+    /**
+     * SPECIAL, JAIL and FINISH end movement when a token lands on them.
+     */
+    public boolean isLandingStop(int node) {
+        byte t = types[node];
+        return t == BoardNodeType.SPECIAL.ordinal()
+                || t == BoardNodeType.JAIL.ordinal()
+                || t == BoardNodeType.FINISH.ordinal();
     }
 }
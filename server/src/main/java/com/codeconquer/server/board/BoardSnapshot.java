@@ -0,0 +1,163 @@
+package com.codeconquer.server.board;
+
+import com.codeconquer.server.model.BoardNodeType;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Binary form of a compiled board, written at build time next to its board.json
+ * ({@code <id>.board}) so startup reads a few arrays instead of parsing JSON.
+ *
+ * Layout (DataOutput, big endian): magic, format version, MAX_ROLL, content hash of the
+ * source JSON, meta (length-prefixed UTF-8 JSON, so values keep their JSON types; -1 = none), nodes (id, type ordinal), edges (from
+ * and to as node indexes, optional label) and the move table of {@link BoardGraph#move}.
+ *
+ * {@link #main} is the build step (see the exec plugin in pom.xml): it runs every board
+ * through {@link BoardValidator}, so a broken board fails the build instead of the boot.
+ */
+public final class BoardSnapshot {
+
+    public static final String EXTENSION = ".board";
+
+    private static final int MAGIC = 0x43434244; // "CCBD"
+    private static final int FORMAT_VERSION = 2;
+    private static final ObjectMapper META_MAPPER = new ObjectMapper();
+
+    private BoardSnapshot() {}
+
+    public static void write(CompiledBoard board, OutputStream out) throws IOException {
+        BoardGraph graph = board.getGraph();
+        BoardGraphDefinition def = graph.getDefinition();
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(BoardGraph.MAX_ROLL);
+        data.writeUTF(board.getContentHash());
+
+        if (def.getMeta() == null) {
+            data.writeInt(-1);
+        } else {
+            byte[] meta = META_MAPPER.writeValueAsBytes(def.getMeta());
+            data.writeInt(meta.length);
+            data.write(meta);
+        }
+
+        data.writeInt(graph.nodeCount());
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            data.writeUTF(graph.idOf(node));
+            data.writeByte(graph.typeOf(node).ordinal());
+        }
+
+        data.writeInt(def.getEdges().size());
+        for (BoardEdgeDef e : def.getEdges()) {
+            data.writeInt(graph.indexOf(e.getFrom()));
+            data.writeInt(graph.indexOf(e.getTo()));
+            data.writeBoolean(e.getLabel() != null);
+            if (e.getLabel() != null) data.writeUTF(e.getLabel());
+        }
+
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            for (int steps = 0; steps <= BoardGraph.MAX_ROLL; steps++) {
+                data.writeLong(graph.move(node, steps));
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Restores a board written by {@link #write}. Returns null if the snapshot was built from
+     * another version of the board file ({@code expectedHash}) or by an incompatible build.
+     */
+    public static CompiledBoard read(String id, String expectedHash, InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) throw new IOException("not a board snapshot");
+        if (data.readInt() != FORMAT_VERSION || data.readInt() != BoardGraph.MAX_ROLL) return null;
+        String contentHash = data.readUTF();
+        if (!contentHash.equals(expectedHash)) return null;
+
+        BoardGraphDefinition def = new BoardGraphDefinition();
+        int metaLength = data.readInt();
+        if (metaLength >= 0) {
+            byte[] meta = new byte[metaLength];
+            data.readFully(meta);
+            // Read back like board.json is read, so both load paths give the same values.
+            def.setMeta(META_MAPPER.readValue(meta, new TypeReference<LinkedHashMap<String, Object>>() {}));
+        }
+
+        BoardNodeType[] types = BoardNodeType.values();
+        int nodeCount = data.readInt();
+        List<BoardNodeDef> nodes = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            BoardNodeDef n = new BoardNodeDef();
+            n.setId(data.readUTF());
+            n.setType(types[data.readUnsignedByte()]);
+            nodes.add(n);
+        }
+        def.setNodes(nodes);
+
+        int edgeCount = data.readInt();
+        List<BoardEdgeDef> edges = new ArrayList<>(edgeCount);
+        for (int i = 0; i < edgeCount; i++) {
+            BoardEdgeDef e = new BoardEdgeDef();
+            e.setFrom(nodes.get(data.readInt()).getId());
+            e.setTo(nodes.get(data.readInt()).getId());
+            if (data.readBoolean()) e.setLabel(data.readUTF());
+            edges.add(e);
+        }
+        def.setEdges(edges);
+
+        long[] moves = new long[nodeCount * (BoardGraph.MAX_ROLL + 1)];
+        for (int i = 0; i < moves.length; i++) moves[i] = data.readLong();
+
+        return CompiledBoard.of(id, contentHash, BoardGraph.compile(def, moves));
+    }
+
+    /**
+     * Build step: validates every *.json in {@code args[0]} and writes its snapshot to {@code args[1]}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) throw new IllegalArgumentException("usage: BoardSnapshot <boardDir> <outputDir>");
+        Path source = Path.of(args[0]);
+        Path target = Path.of(args[1]);
+        Files.createDirectories(target);
+
+        // Same leniency as the application's ObjectMapper.
+        ObjectMapper objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(source)) {
+            files = list.filter(p -> p.getFileName().toString().endsWith(".json")).sorted().toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            String id = name.substring(0, name.length() - ".json".length());
+            byte[] raw = Files.readAllBytes(file);
+            CompiledBoard board;
+            try {
+                board = CompiledBoard.compile(id, CompiledBoard.contentHash(raw),
+                        objectMapper.readValue(raw, BoardGraphDefinition.class));
+            } catch (IllegalStateException e) {
+                throw new IllegalStateException("Invalid board " + file + ": " + e.getMessage(), e);
+            }
+            try (OutputStream out = Files.newOutputStream(target.resolve(id + EXTENSION))) {
+                write(board, out);
+            }
+            System.out.println("Compiled board " + id + " (" + board.getGraph().nodeCount() + " nodes)");
+        }
+    }
+}
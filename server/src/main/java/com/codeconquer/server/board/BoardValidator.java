@@ -0,0 +1,42 @@
+package com.codeconquer.server.board;
+
+import com.codeconquer.server.model.BoardNodeType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Structural checks every board definition must pass before it is compiled.
+ */
+public final class BoardValidator {
+
+    private BoardValidator() {}
+
+    public static void validate(BoardGraphDefinition def) {
+        if (def == null) throw new IllegalStateException("board.json is empty");
+        if (def.getNodes() == null || def.getNodes().isEmpty()) throw new IllegalStateException("board.json: nodes missing");
+        if (def.getEdges() == null || def.getEdges().isEmpty()) throw new IllegalStateException("board.json: edges missing");
+
+        Map<String, BoardNodeDef> byId = new HashMap<>();
+        for (BoardNodeDef n : def.getNodes()) {
+            if (n.getId() == null || n.getId().isBlank()) throw new IllegalStateException("board.json: node id missing");
+            if (n.getType() == null) throw new IllegalStateException("board.json: node type missing for id=" + n.getId());
+            if (byId.put(n.getId(), n) != null) throw new IllegalStateException("board.json: duplicate node id=" + n.getId());
+        }
+
+        long startCount = def.getNodes().stream().filter(n -> n.getType() == BoardNodeType.START).count();
+        long finishCount = def.getNodes().stream().filter(n -> n.getType() == BoardNodeType.FINISH).count();
+        if (startCount != 1) throw new IllegalStateException("board.json: expected exactly 1 START node, got " + startCount);
+        if (finishCount != 1) throw new IllegalStateException("board.json: expected exactly 1 FINISH node, got " + finishCount);
+
+        for (BoardEdgeDef e : def.getEdges()) {
+            if (e.getFrom() == null || e.getFrom().isBlank()) throw new IllegalStateException("board.json: edge.from missing");
+            if (e.getTo() == null || e.getTo().isBlank()) throw new IllegalStateException("board.json: edge.to missing");
+            if (!byId.containsKey(e.getFrom())) throw new IllegalStateException("board.json: edge.from unknown node " + e.getFrom());
+            if (!byId.containsKey(e.getTo())) throw new IllegalStateException("board.json: edge.to unknown node " + e.getTo());
+        }
+
+        // Sanity: finish node should exist and can have no outgoing edges; others typically have at least one.
+        // We don't strictly enforce out-degree here because special rules might add teleports later.
+    }
+}
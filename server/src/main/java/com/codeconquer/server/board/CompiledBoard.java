@@ -0,0 +1,155 @@
+package com.codeconquer.server.board;
+
+import com.codeconquer.server.dto.ForkOption;
+import com.codeconquer.server.dto.MoveOutcome;
+import com.codeconquer.server.model.BoardNodeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One validated board with everything derived from it at load: the compiled graph, its
+ * content hash (board version / ETag), fork options and roll outcomes per node.
+ * Immutable and shared by every session playing this board.
+ */
+public final class CompiledBoard {
+
+    private static final Logger log = LoggerFactory.getLogger(CompiledBoard.class);
+
+    private final String id;
+    private final String contentHash;
+    private final BoardGraph graph;
+    // Per node index.
+    private final List<List<ForkOption>> forkOptions;
+    private final List<List<MoveOutcome>> moveOutcomes;
+
+    private CompiledBoard(String id, String contentHash, BoardGraph graph) {
+        this.id = id;
+        this.contentHash = contentHash;
+        this.graph = graph;
+        this.forkOptions = buildForkOptions();
+        this.moveOutcomes = buildMoveOutcomes();
+    }
+
+    /**
+     * Validates and compiles a parsed definition.
+     */
+    public static CompiledBoard compile(String id, String contentHash, BoardGraphDefinition def) {
+        BoardValidator.validate(def);
+        return new CompiledBoard(id, contentHash, BoardGraph.compile(def));
+    }
+
+    /**
+     * Wraps a graph restored from a {@link BoardSnapshot}; validated when the snapshot was built.
+     */
+    static CompiledBoard of(String id, String contentHash, BoardGraph graph) {
+        return new CompiledBoard(id, contentHash, graph);
+    }
+
+    /**
+     * SHA-256 (hex, shortened) of a board file, as reported by {@link #getContentHash()}.
+     */
+    public static String contentHash(byte[] raw) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(raw);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * SHA-256 (hex, shortened) of the board file; identifies the board version.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public BoardGraph getGraph() {
+        return graph;
+    }
+
+    public String getStartNodeId() {
+        return graph.getStartNodeId();
+    }
+
+    public String getFinishNodeId() {
+        return graph.getFinishNodeId();
+    }
+
+    public String getJailNodeId() {
+        return graph.getJailNodeId();
+    }
+
+    /**
+     * Labeled options for the outgoing edges of a fork, in board.json order.
+     * Precompiled at load; the returned list is shared and immutable.
+     */
+    public List<ForkOption> getForkOptions(String forkNodeId) {
+        int node = graph.indexOf(forkNodeId);
+        return node < 0 ? List.of() : forkOptions.get(node);
+    }
+
+    /**
+     * Outcomes of rolling 1..MAX_ROLL from a node (index = roll - 1), or null for an unknown node.
+     * Lets the UI highlight possible landing spots while the dice are still rolling.
+     */
+    public List<MoveOutcome> getMoveOutcomes(String fromNodeId) {
+        int node = graph.indexOf(fromNodeId);
+        return node < 0 ? null : moveOutcomes.get(node);
+    }
+
+    private List<List<ForkOption>> buildForkOptions() {
+        Map<String, List<ForkOption>> byFrom = new HashMap<>();
+        for (BoardEdgeDef e : graph.getDefinition().getEdges()) {
+            String label = (e.getLabel() == null || e.getLabel().isBlank()) ? "Choose path" : e.getLabel().trim();
+            byFrom.computeIfAbsent(e.getFrom(), k -> new ArrayList<>()).add(new ForkOption(e.getTo(), label));
+        }
+
+        List<List<ForkOption>> all = new ArrayList<>(graph.nodeCount());
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            List<ForkOption> options = byFrom.getOrDefault(graph.idOf(node), List.of());
+            if (options.size() > 1 && options.stream().anyMatch(o -> "Choose path".equals(o.getLabel()))) {
+                log.warn("Board {}: fork {} has edges without a label", id, graph.idOf(node));
+            }
+            all.add(List.copyOf(options));
+        }
+        return List.copyOf(all);
+    }
+
+    private List<List<MoveOutcome>> buildMoveOutcomes() {
+        List<List<MoveOutcome>> all = new ArrayList<>(graph.nodeCount());
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            List<MoveOutcome> outcomes = new ArrayList<>(BoardGraph.MAX_ROLL);
+            for (int roll = 1; roll <= BoardGraph.MAX_ROLL; roll++) {
+                long stop = graph.move(node, roll);
+                int to = BoardGraph.stopNode(stop);
+                int remaining = BoardGraph.stopRemaining(stop);
+                String toId = graph.idOf(to);
+                BoardNodeType toType = graph.typeOf(to);
+
+                // Same classification as TurnService.moveSteps.
+                if (remaining < roll && graph.isLandingStop(to)) {
+                    outcomes.add(new MoveOutcome(roll, toId, toType.name(), toType.name(), null, List.of()));
+                } else if (remaining > 0 && graph.outDegree(to) > 1 && toType != BoardNodeType.FINISH) {
+                    outcomes.add(new MoveOutcome(roll, toId, toType.name(), "FORK", remaining, getForkOptions(toId)));
+                } else {
+                    outcomes.add(new MoveOutcome(roll, toId, toType.name(), "MOVED", null, List.of()));
+                }
+            }
+            all.add(List.copyOf(outcomes));
+        }
+        return List.copyOf(all);
+    }
+}
@@ -0,0 +1,12 @@
+package com.codeconquer.server.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled housekeeping (e.g. keep-alive pings for event streams).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
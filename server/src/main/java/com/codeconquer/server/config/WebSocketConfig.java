@@ -0,0 +1,25 @@
+package com.codeconquer.server.config;
+
+import com.codeconquer.server.controller.LobbySocketHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final LobbySocketHandler lobbySocketHandler;
+
+    public WebSocketConfig(LobbySocketHandler lobbySocketHandler) {
+        this.lobbySocketHandler = lobbySocketHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Same origin policy as the REST API (see CorsConfig).
+        registry.addHandler(lobbySocketHandler, "/api/sessions/*/lobby/ws")
+                .setAllowedOriginPatterns("*");
+    }
+}
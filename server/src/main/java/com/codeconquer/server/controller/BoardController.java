@@ -1,34 +1,106 @@
 package com.codeconquer.server.controller;
 
 import com.codeconquer.server.board.BoardGraphDefinition;
+import com.codeconquer.server.board.CompiledBoard;
+import com.codeconquer.server.dto.BoardAnalytics;
+import com.codeconquer.server.dto.MoveOutcome;
+import com.codeconquer.server.service.BoardAnalyticsService;
 import com.codeconquer.server.service.BoardGraphService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Board definitions and derived data. Every endpoint takes an optional boardId
+ * (a session's {@code boardId}); without it the default board is served.
+ */
 @RestController
 @RequestMapping("/api")
 public class BoardController {
 
     private final BoardGraphService boardGraphService;
+    private final BoardAnalyticsService boardAnalyticsService;
 
-    public BoardController(BoardGraphService boardGraphService) {
+    public BoardController(BoardGraphService boardGraphService, BoardAnalyticsService boardAnalyticsService) {
         this.boardGraphService = boardGraphService;
+        this.boardAnalyticsService = boardAnalyticsService;
+    }
+
+    @GetMapping("/boards")
+    public Map<String, Object> listBoards() {
+        return Map.of(
+                "defaultBoardId", boardGraphService.getDefault().getId(),
+                "boardIds", boardGraphService.getBoardIds()
+        );
     }
 
     @GetMapping("/board")
-    public ResponseEntity<Map<String, Object>> getBoard() {
-        BoardGraphDefinition def = boardGraphService.getBoard().getDefinition();
-        return ResponseEntity.ok(Map.of(
-                "startNodeId", boardGraphService.getStartNodeId(),
-                "finishNodeId", boardGraphService.getFinishNodeId(),
-                "jailNodeId", boardGraphService.getJailNodeId(),
+    public ResponseEntity<Map<String, Object>> getBoard(@RequestParam(required = false) String boardId, WebRequest request) {
+        CompiledBoard board = find(boardId);
+        if (board == null) return ResponseEntity.notFound().build();
+
+        String etag = "\"" + board.getContentHash() + "\"";
+        if (request.checkNotModified(etag)) return null; // 304 already prepared
+
+        BoardGraphDefinition def = board.getGraph().getDefinition();
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(Map.of(
+                "boardId", board.getId(),
+                "startNodeId", board.getStartNodeId(),
+                "finishNodeId", board.getFinishNodeId(),
+                "jailNodeId", board.getJailNodeId() == null ? "" : board.getJailNodeId(),
                 "meta", def.getMeta(),
                 "nodes", def.getNodes(),
                 "edges", def.getEdges()
         ));
     }
+
+    /**
+     * Where each roll (1..6) from a node ends; precomputed when the board is loaded.
+     */
+    @GetMapping("/board/moves/{nodeId}")
+    public ResponseEntity<List<MoveOutcome>> getMoves(@PathVariable String nodeId,
+                                                      @RequestParam(required = false) String boardId,
+                                                      WebRequest request) {
+        CompiledBoard board = find(boardId);
+        List<MoveOutcome> outcomes = board == null ? null : board.getMoveOutcomes(nodeId);
+        if (outcomes == null) return ResponseEntity.notFound().build();
+
+        String etag = "\"" + board.getContentHash() + "\"";
+        if (request.checkNotModified(etag)) return null; // 304 already prepared
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(outcomes);
+    }
+
+    /**
+     * Distance and expected turns to FINISH for every node (see BoardAnalyticsService).
+     * successRate is the assumed chance of passing a challenge.
+     */
+    @GetMapping("/board/analytics")
+    public ResponseEntity<BoardAnalytics> getAnalytics(@RequestParam(required = false) String boardId,
+                                                       @RequestParam(defaultValue = "1.0") double successRate,
+                                                       WebRequest request) {
+        CompiledBoard board = find(boardId);
+        if (board == null) return ResponseEntity.notFound().build();
+
+        double rate = BoardAnalyticsService.normalizeRate(successRate);
+        String etag = "\"" + board.getContentHash() + "-" + rate + "\"";
+        if (request.checkNotModified(etag)) return null; // 304 already prepared
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                .body(boardAnalyticsService.getAnalytics(board.getId(), rate));
+    }
+
+    private CompiledBoard find(String boardId) {
+        try {
+            return boardGraphService.get(boardId);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
 }
@@ -9,7 +9,9 @@ import com.codeconquer.server.model.Player;
 import com.codeconquer.server.service.ChallengeRouterService;
 import com.codeconquer.server.service.BoardGraphService;
 import com.codeconquer.server.service.GameSessionService;
+import com.codeconquer.server.service.OptimisticRetry;
 import com.codeconquer.server.service.PlayerService;
+import com.codeconquer.server.service.SessionLocks;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,12 +26,17 @@ public class ChallengeController {
     private final GameSessionService sessionService;
     private final PlayerService playerService;
     private final BoardGraphService boardService;
+    private final SessionLocks sessionLocks;
+    private final OptimisticRetry optimisticRetry;
 
-    public ChallengeController(ChallengeRouterService router, GameSessionService sessionService, PlayerService playerService, BoardGraphService boardService) {
+    public ChallengeController(ChallengeRouterService router, GameSessionService sessionService, PlayerService playerService,
+                               BoardGraphService boardService, SessionLocks sessionLocks, OptimisticRetry optimisticRetry) {
         this.router = router;
         this.sessionService = sessionService;
         this.playerService = playerService;
         this.boardService = boardService;
+        this.sessionLocks = sessionLocks;
+        this.optimisticRetry = optimisticRetry;
     }
 
     @GetMapping("/random")
@@ -39,6 +46,12 @@ public class ChallengeController {
             @RequestParam String sessionId,
             @RequestParam String playerId
     ) {
+        // Check-and-lock of the turn status must not race with another tap.
+        return sessionLocks.call(sessionId, () -> optimisticRetry.call(() -> startRandom(difficulty, category, sessionId, playerId)));
+    }
+
+    private ResponseEntity<ChallengeDescriptor> startRandom(Difficulty difficulty, Category category,
+                                                            String sessionId, String playerId) {
         Optional<GameSession> sOpt = sessionService.findById(sessionId);
         if (sOpt.isEmpty()) return ResponseEntity.badRequest().build();
         GameSession s = sOpt.get();
@@ -98,6 +111,10 @@ public class ChallengeController {
             @RequestParam String playerId,
             @RequestParam(required = false) Category category
     ) {
+        return sessionLocks.call(sessionId, () -> optimisticRetry.call(() -> startForTurn(sessionId, playerId, category)));
+    }
+
+    private ResponseEntity<ChallengeDescriptor> startForTurn(String sessionId, String playerId, Category category) {
         Optional<GameSession> sOpt = sessionService.findById(sessionId);
         if (sOpt.isEmpty()) return ResponseEntity.badRequest().build();
         GameSession s = sOpt.get();
@@ -124,7 +141,7 @@ public class ChallengeController {
         // Determine difficulty from board node type.
         String pos = p.getPositionNodeId();
         if (pos == null || pos.isBlank()) return ResponseEntity.status(409).build();
-        BoardNodeType nodeType = boardService.getBoard().getType(pos);
+        BoardNodeType nodeType = boardService.forSession(s).getGraph().getType(pos);
         Difficulty diff;
         if (nodeType == BoardNodeType.EASY) diff = Difficulty.EASY;
         else if (nodeType == BoardNodeType.MEDIUM) diff = Difficulty.MEDIUM;
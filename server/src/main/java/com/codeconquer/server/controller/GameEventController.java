@@ -1,12 +1,18 @@
 package com.codeconquer.server.controller;
 
 import com.codeconquer.server.model.GameEvent;
+import com.codeconquer.server.service.GameEventLongPollService;
 import com.codeconquer.server.service.GameEventService;
+import com.codeconquer.server.service.GameEventStreamService;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -15,9 +21,15 @@ import java.util.List;
 public class GameEventController {
 
     private final GameEventService eventService;
+    private final GameEventStreamService eventStreamService;
+    private final GameEventLongPollService eventLongPollService;
 
-    public GameEventController(GameEventService eventService) {
+    public GameEventController(GameEventService eventService,
+                               GameEventStreamService eventStreamService,
+                               GameEventLongPollService eventLongPollService) {
         this.eventService = eventService;
+        this.eventStreamService = eventStreamService;
+        this.eventLongPollService = eventLongPollService;
     }
 
     /**
@@ -36,4 +48,44 @@ public class GameEventController {
         }
         return eventService.getLatest(sessionId, limit == null ? 10 : limit);
     }
+
+    /**
+     * Long-poll game events for a session.
+     *
+     * Example: /api/sessions/{id}/events?afterSeq=12&waitMs=25000
+     * Answers immediately if events after afterSeq exist, otherwise as soon as the next one
+     * is published, or with [] after waitMs (capped at 30s).
+     */
+    @GetMapping(value = "/{sessionId}/events", params = "waitMs")
+    public DeferredResult<List<GameEvent>> awaitEvents(@PathVariable("sessionId") String sessionId,
+                                                       @RequestParam(value = "afterSeq", defaultValue = "0") long afterSeq,
+                                                       @RequestParam("waitMs") long waitMs) {
+        return eventLongPollService.awaitEventsAfter(sessionId, afterSeq, waitMs);
+    }
+
+    /**
+     * Push game events for a session (Server-Sent Events).
+     *
+     * Resumes after Last-Event-ID (sent by EventSource on reconnect) or afterSeq.
+     * Without either, only events published from now on are delivered.
+     */
+    @GetMapping(value = "/{sessionId}/events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@PathVariable("sessionId") String sessionId,
+                                   @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                   @RequestParam(value = "afterSeq", required = false) Long afterSeq) {
+        long cursor;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                cursor = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid Last-Event-ID");
+            }
+        } else if (afterSeq != null) {
+            cursor = afterSeq;
+        } else {
+            List<GameEvent> latest = eventService.getLatest(sessionId, 1);
+            cursor = latest.isEmpty() ? 0 : latest.get(latest.size() - 1).getSeq();
+        }
+        return eventStreamService.subscribe(sessionId, cursor);
+    }
 }
@@ -1,9 +1,16 @@
 package com.codeconquer.server.controller;
 
+import com.codeconquer.server.dto.GlobalRankEntry;
+import com.codeconquer.server.dto.LeaderboardEntry;
 import com.codeconquer.server.dto.PlayerLeaderboardEntry;
+import com.codeconquer.server.service.GameStateStore;
+import com.codeconquer.server.service.GlobalLeaderboard;
 import com.codeconquer.server.service.LeaderboardService;
+import com.codeconquer.server.service.SessionScoreboard;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -12,16 +19,74 @@ import java.util.List;
 public class LeaderboardController {
 
     private final LeaderboardService leaderboardService;
+    private final GameStateStore stateStore;
+    private final SessionScoreboard scoreboard;
+    private final GlobalLeaderboard globalLeaderboard;
 
-    public LeaderboardController(LeaderboardService leaderboardService) {
+    public LeaderboardController(LeaderboardService leaderboardService, GameStateStore stateStore,
+                                 SessionScoreboard scoreboard, GlobalLeaderboard globalLeaderboard) {
         this.leaderboardService = leaderboardService;
+        this.stateStore = stateStore;
+        this.scoreboard = scoreboard;
+        this.globalLeaderboard = globalLeaderboard;
     }
 
     @GetMapping
-    public ResponseEntity<List<PlayerLeaderboardEntry>> getLeaderboard(@RequestParam String sessionId) {
+    public ResponseEntity<List<PlayerLeaderboardEntry>> getLeaderboard(@RequestParam String sessionId, WebRequest request) {
         if (sessionId == null || sessionId.isBlank()) {
             return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.ok(leaderboardService.getLeaderboardForSession(sessionId));
+        // Totals live on the players, so the roster versions cover the leaderboard too.
+        String etag = stateStore.stateTag(sessionId);
+        if (etag != null && request.checkNotModified(etag)) return null; // 304 already prepared
+
+        return revalidated(etag).body(leaderboardService.getLeaderboardForSession(sessionId));
+    }
+
+    /**
+     * Points, attempts, mean time and errors per player (players with at least one score).
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<List<LeaderboardEntry>> getSummary(@RequestParam String sessionId, WebRequest request) {
+        if (sessionId == null || sessionId.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        // Every score also writes the session row, so its version covers the summary.
+        String etag = stateStore.stateTag(sessionId);
+        if (etag != null && request.checkNotModified(etag)) return null; // 304 already prepared
+
+        return revalidated(etag).body(scoreboard.getSummary(sessionId));
+    }
+
+    // --- All-time hall of fame (players of all sessions by total points) ---
+
+    @GetMapping("/global/top")
+    public List<GlobalRankEntry> getGlobalTop(@RequestParam(defaultValue = "10") int limit) {
+        return globalLeaderboard.top(Math.max(1, Math.min(limit, 100)));
+    }
+
+    @GetMapping("/global/rank")
+    public ResponseEntity<GlobalRankEntry> getGlobalRank(@RequestParam String playerId) {
+        GlobalRankEntry entry = globalLeaderboard.rank(playerId);
+        return entry == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(entry);
+    }
+
+    /**
+     * The player and up to {@code radius} players above and below them.
+     */
+    @GetMapping("/global/around")
+    public ResponseEntity<List<GlobalRankEntry>> getGlobalAround(@RequestParam String playerId,
+                                                                 @RequestParam(defaultValue = "5") int radius) {
+        List<GlobalRankEntry> entries = globalLeaderboard.around(playerId, Math.max(0, Math.min(radius, 50)));
+        return entries.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(entries);
+    }
+
+    /**
+     * 200 that the client must revalidate; without a tag (unknown session) nothing to revalidate against.
+     */
+    private static ResponseEntity.BodyBuilder revalidated(String etag) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        if (etag != null) ok.eTag(etag);
+        return ok;
     }
 }
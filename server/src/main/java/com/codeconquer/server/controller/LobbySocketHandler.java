@@ -0,0 +1,62 @@
+package com.codeconquer.server.controller;
+
+import com.codeconquer.server.service.LobbyBroadcastService;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.net.URI;
+
+/**
+ * Lobby state channel: ws(s)://host/api/sessions/{sessionId}/lobby/ws
+ *
+ * Server -> client only. See {@link LobbyBroadcastService} for the message format.
+ */
+@Component
+public class LobbySocketHandler extends TextWebSocketHandler {
+
+    private static final String ATTR_SESSION_ID = "cc.sessionId";
+    private static final String ATTR_SOCKET = "cc.socket";
+
+    private final LobbyBroadcastService broadcastService;
+
+    public LobbySocketHandler(LobbyBroadcastService broadcastService) {
+        this.broadcastService = broadcastService;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        String sessionId = sessionIdFrom(session.getUri());
+        if (sessionId == null) {
+            session.close(CloseStatus.BAD_DATA);
+            return;
+        }
+        // Broadcasts may come from several threads; the decorator serializes sends.
+        WebSocketSession socket = new ConcurrentWebSocketSessionDecorator(session, 5_000, 256 * 1024);
+        session.getAttributes().put(ATTR_SESSION_ID, sessionId);
+        session.getAttributes().put(ATTR_SOCKET, socket);
+        if (!broadcastService.subscribe(sessionId, socket)) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("Session not found"));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Object sessionId = session.getAttributes().get(ATTR_SESSION_ID);
+        Object socket = session.getAttributes().get(ATTR_SOCKET);
+        if (sessionId instanceof String sid && socket instanceof WebSocketSession ws) {
+            broadcastService.unsubscribe(sid, ws);
+        }
+    }
+
+    private String sessionIdFrom(URI uri) {
+        if (uri == null || uri.getPath() == null) return null;
+        String[] parts = uri.getPath().split("/");
+        for (int i = 0; i < parts.length - 1; i++) {
+            if ("sessions".equals(parts[i]) && !parts[i + 1].isBlank()) return parts[i + 1];
+        }
+        return null;
+    }
+}
@@ -1,10 +1,16 @@
 package com.codeconquer.server.controller;
 
 import com.codeconquer.server.model.Score;
+import com.codeconquer.server.service.IdempotencyCache;
 import com.codeconquer.server.service.ScoreService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
@@ -12,13 +18,16 @@ import java.util.List;
 public class ScoreController {
 
     private final ScoreService scoreService;
+    private final IdempotencyCache idempotencyCache;
 
-    public ScoreController(ScoreService scoreService) {
+    public ScoreController(ScoreService scoreService, IdempotencyCache idempotencyCache) {
         this.scoreService = scoreService;
+        this.idempotencyCache = idempotencyCache;
     }
 
     @PostMapping
-    public ResponseEntity<Score> submitScore(@RequestBody Score score) {
+    public ResponseEntity<Score> submitScore(@RequestBody Score score,
+                                             @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey) {
         if (score.getSessionId() == null || score.getSessionId().isBlank()) {
             return ResponseEntity.badRequest().build();
         }
@@ -27,17 +36,26 @@ public class ScoreController {
         }
         // Ignore any client-provided playerName; it will be set server-side from playerId.
         score.setPlayerName(null);
-        return ResponseEntity.ok(scoreService.saveScore(score));
+        List<Object> params = Arrays.asList(score.getChallengeId(), score.getCategory(), score.getDifficulty(),
+                score.getPoints(), score.getTimeMs(), score.getErrors());
+        return idempotencyCache.call(score.getSessionId(), score.getPlayerId(), "score", idempotencyKey, params,
+                () -> ResponseEntity.ok(scoreService.saveScore(score)));
     }
 
     /**
      * Optional filters:
      *  - sessionId: return only scores from that match
      *  - playerName: (requires sessionId) return only that player's scores
+     *
+     * Without sessionId the result is paged by id: up to {@code limit} scores (at most
+     * {@link ScoreService#MAX_PAGE_SIZE}) after {@code afterId}. For the next page pass the
+     * id of the last score; an empty page is the end. Use /export for everything at once.
      */
     @GetMapping
     public List<Score> getScores(@RequestParam(required = false) String sessionId,
-                                 @RequestParam(required = false) String playerName) {
+                                 @RequestParam(required = false) String playerName,
+                                 @RequestParam(defaultValue = "0") long afterId,
+                                 @RequestParam(defaultValue = "100") int limit) {
 
         if (sessionId != null && !sessionId.isBlank()) {
             if (playerName != null && !playerName.isBlank()) {
@@ -46,7 +64,17 @@ public class ScoreController {
             return scoreService.getScoresForSession(sessionId);
         }
 
-        return scoreService.getAllScores();
+        return scoreService.getScoresAfter(afterId, limit);
+    }
+
+    /**
+     * All scores as NDJSON (one per line, id order), streamed as they are read.
+     */
+    @GetMapping("/export")
+    public void exportScores(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"scores.ndjson\"");
+        scoreService.exportAll(response.getOutputStream());
     }
 
     @GetMapping("/top")
@@ -16,8 +16,12 @@ public class SessionController {
     }
 
     @PostMapping
-    public GameSession createSession() {
-        return service.createNew();
+    public ResponseEntity<GameSession> createSession(@RequestParam(required = false) String boardId) {
+        try {
+            return ResponseEntity.ok(service.createNew(boardId));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -1,20 +1,25 @@
 package com.codeconquer.server.controller;
 
 import com.codeconquer.server.board.BoardGraph;
+import com.codeconquer.server.board.CompiledBoard;
 import com.codeconquer.server.model.BoardNodeType;
 import com.codeconquer.server.model.GameSession;
 import com.codeconquer.server.model.Player;
 import com.codeconquer.server.model.SpecialCardType;
-import com.codeconquer.server.repository.GameSessionRepository;
-import com.codeconquer.server.repository.PlayerRepository;
 import com.codeconquer.server.service.BoardGraphService;
 import com.codeconquer.server.service.GameSessionService;
+import com.codeconquer.server.service.GameStateStore;
+import com.codeconquer.server.service.IdempotencyCache;
+import com.codeconquer.server.service.OptimisticRetry;
+import com.codeconquer.server.service.SessionLocks;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 @RestController
@@ -23,17 +28,23 @@ public class SpecialCardController {
 
     private final GameSessionService sessionService;
     private final BoardGraphService boardService;
-    private final PlayerRepository playerRepository;
-    private final GameSessionRepository sessionRepository;
+    private final GameStateStore stateStore;
+    private final SessionLocks sessionLocks;
+    private final OptimisticRetry optimisticRetry;
+    private final IdempotencyCache idempotencyCache;
 
     public SpecialCardController(GameSessionService sessionService,
                                  BoardGraphService boardService,
-                                 PlayerRepository playerRepository,
-                                 GameSessionRepository sessionRepository) {
+                                 GameStateStore stateStore,
+                                 SessionLocks sessionLocks,
+                                 OptimisticRetry optimisticRetry,
+                                 IdempotencyCache idempotencyCache) {
         this.sessionService = sessionService;
         this.boardService = boardService;
-        this.playerRepository = playerRepository;
-        this.sessionRepository = sessionRepository;
+        this.stateStore = stateStore;
+        this.sessionLocks = sessionLocks;
+        this.optimisticRetry = optimisticRetry;
+        this.idempotencyCache = idempotencyCache;
     }
 
     /**
@@ -47,13 +58,27 @@ public class SpecialCardController {
             @RequestParam SpecialCardType card,
             @RequestParam(required = false) String targetPlayerId,
             // Only used for BOOST on fork nodes (player chooses the outgoing edge)
-            @RequestParam(required = false) String boostToNodeId
+            @RequestParam(required = false) String boostToNodeId,
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey
     ) {
+        return idempotencyCache.call(sessionId, playerId, "special", idempotencyKey,
+                Arrays.asList(card, targetPlayerId, boostToNodeId), () -> sessionLocks.call(sessionId, () -> {
+            try {
+                return optimisticRetry.call(() -> applyCard(sessionId, playerId, card, targetPlayerId, boostToNodeId));
+            } finally {
+                // Effects are saved straight through the store; report the change once at the end.
+                sessionService.markChanged(sessionId);
+            }
+        }));
+    }
+
+    private ResponseEntity<?> applyCard(String sessionId, String playerId, SpecialCardType card,
+                                        String targetPlayerId, String boostToNodeId) {
         Optional<GameSession> sOpt = sessionService.findById(sessionId);
         if (sOpt.isEmpty()) return ResponseEntity.badRequest().build();
         GameSession s = sOpt.get();
 
-        Optional<Player> pOpt = playerRepository.findById(playerId);
+        Optional<Player> pOpt = stateStore.findPlayer(playerId);
         if (pOpt.isEmpty()) return ResponseEntity.badRequest().build();
         Player p = pOpt.get();
         if (p.getSessionId() == null || !p.getSessionId().equals(sessionId)) return ResponseEntity.badRequest().build();
@@ -71,14 +96,16 @@ public class SpecialCardController {
             return ResponseEntity.status(423).build();
         }
 
+        CompiledBoard board = boardService.forSession(s);
+
         // Resolve "ignore next positive" mechanic.
         if (card.isPositive() && p.isIgnoreNextPositiveSpecial()) {
             p.setIgnoreNextPositiveSpecial(false);
-            playerRepository.save(p);
+            stateStore.savePlayer(p);
             sessionService.publishEvent(s, "SPECIAL_IGNORED", "🚫🃏 " + fmt(p) + " – positive Special-Karte wurde ignoriert.");
             // Turn ends anyway.
             s.setTurnStatus(GameSessionService.TURN_AWAITING_D6_ROLL);
-            sessionRepository.save(s);
+            stateStore.saveSession(s);
             sessionService.advanceTurn(sessionId);
             return ResponseEntity.ok().body(java.util.Map.of("ok", true, "ignored", true));
         }
@@ -88,7 +115,7 @@ public class SpecialCardController {
             case PERMISSION_DENIED -> {
                 Player t = requireTarget(sessionId, targetPlayerId);
                 t.setIgnoreNextPositiveSpecial(true);
-                playerRepository.save(t);
+                stateStore.savePlayer(t);
                 sessionService.publishEvent(s, "SPECIAL", "⛔🃏 " + fmt(p) + " spielt Permission denied auf " + fmt(t) + ".");
             }
             case RAGE_BAIT -> {
@@ -97,33 +124,33 @@ public class SpecialCardController {
                 String bPos = t.getPositionNodeId();
                 p.setPositionNodeId(bPos);
                 t.setPositionNodeId(aPos);
-                playerRepository.save(p);
-                playerRepository.save(t);
+                stateStore.savePlayer(p);
+                stateStore.savePlayer(t);
                 sessionService.publishEvent(s, "SPECIAL", "🔁🃏 " + fmt(p) + " tauscht Position mit " + fmt(t) + ".");
             }
             case REFACTOR -> {
                 p.setNextHardBecomesMedium(true);
-                playerRepository.save(p);
+                stateStore.savePlayer(p);
                 sessionService.publishEvent(s, "SPECIAL", "🛠️🃏 " + fmt(p) + " aktiviert Refactor (nächste HARD wird MEDIUM).");
             }
             case SECOND_CHANCE -> {
                 p.setNextDiceAdvantage(true);
-                playerRepository.save(p);
+                stateStore.savePlayer(p);
                 sessionService.publishEvent(s, "SPECIAL", "🎲🃏 " + fmt(p) + " aktiviert Second Chance (nächster Wurf zweimal, höher zählt).");
             }
             case SHORTCUT_FOUND -> {
                 p.setNextHardBecomesEasy(true);
-                playerRepository.save(p);
+                stateStore.savePlayer(p);
                 sessionService.publishEvent(s, "SPECIAL", "✨🃏 " + fmt(p) + " findet einen Shortcut (nächste HARD wird EASY).");
             }
             case ROLLBACK -> {
                 Player t = requireTarget(sessionId, targetPlayerId);
-                sendToJailForOneTurn(t, t.getPositionNodeId());
-                playerRepository.save(t);
+                sendToJailForOneTurn(board, t, t.getPositionNodeId());
+                stateStore.savePlayer(t);
                 sessionService.publishEvent(s, "SPECIAL", "⛓️🃏 " + fmt(p) + " schickt " + fmt(t) + " ins Gefängnis (1 Runde).");
             }
             case BOOST -> {
-                BoostResult br = boostOneStep(s, p, boostToNodeId);
+                BoostResult br = boostOneStep(board, s, p, boostToNodeId);
 
                 // If this is a fork and the player hasn't chosen an outgoing edge yet,
                 // keep the turn in AWAITING_SPECIAL_CARD and return the options so the UI can prompt.
@@ -136,19 +163,19 @@ public class SpecialCardController {
                     ));
                 }
 
-                playerRepository.save(p);
+                stateStore.savePlayer(p);
                 sessionService.publishEvent(s, "SPECIAL", "⚡🃏 " + fmt(p) + " bekommt einen Boost (+1 Feld).");
             }
             case JAIL -> {
-                sendToJailForOneTurn(p, p.getPositionNodeId());
-                playerRepository.save(p);
+                sendToJailForOneTurn(board, p, p.getPositionNodeId());
+                stateStore.savePlayer(p);
                 sessionService.publishEvent(s, "SPECIAL", "⛓️🃏 " + fmt(p) + " muss ins Gefängnis (1 Runde).");
             }
         }
 
         // End the turn after resolving a special card.
         s.setTurnStatus(GameSessionService.TURN_AWAITING_D6_ROLL);
-        sessionRepository.save(s);
+        stateStore.saveSession(s);
         sessionService.advanceTurn(sessionId);
         return ResponseEntity.ok().body(java.util.Map.of("ok", true));
     }
@@ -157,15 +184,15 @@ public class SpecialCardController {
         if (targetPlayerId == null || targetPlayerId.isBlank()) {
             throw new IllegalArgumentException("targetPlayerId required");
         }
-        Player t = playerRepository.findById(targetPlayerId).orElseThrow(() -> new IllegalArgumentException("Target not found"));
+        Player t = stateStore.findPlayer(targetPlayerId).orElseThrow(() -> new IllegalArgumentException("Target not found"));
         if (t.getSessionId() == null || !t.getSessionId().equals(sessionId)) {
             throw new IllegalArgumentException("Target not in session");
         }
         return t;
     }
 
-    private void sendToJailForOneTurn(Player p, String returnNodeId) {
-        String jailId = boardService.getJailNodeId();
+    private void sendToJailForOneTurn(CompiledBoard board, Player p, String returnNodeId) {
+        String jailId = board.getJailNodeId();
         if (jailId == null || jailId.isBlank()) {
             p.setSkipTurns(1);
             return;
@@ -181,35 +208,35 @@ public class SpecialCardController {
         java.util.List<com.codeconquer.server.dto.ForkOption> options = java.util.List.of();
     }
 
-    private BoostResult boostOneStep(GameSession s, Player p, String boostToNodeId) {
+    private BoostResult boostOneStep(CompiledBoard compiled, GameSession s, Player p, String boostToNodeId) {
         BoostResult br = new BoostResult();
-        BoardGraph board = boardService.getBoard();
-        String cur = p.getPositionNodeId();
-        if (cur == null) return br;
-        var outs = board.outgoing(cur);
-        if (outs == null || outs.isEmpty()) return br;
-
-        String next;
-        if (outs.size() > 1) {
+        BoardGraph board = compiled.getGraph();
+        int cur = board.indexOf(p.getPositionNodeId());
+        if (cur < 0) return br;
+        int degree = board.outDegree(cur);
+        if (degree == 0) return br;
+
+        int next;
+        if (degree > 1) {
             // Fork: player must choose.
             if (boostToNodeId == null || boostToNodeId.isBlank()) {
                 br.needChoice = true;
-                br.forkNodeId = cur;
-                br.options = boardService.getForkOptions(cur);
+                br.forkNodeId = board.idOf(cur);
+                br.options = compiled.getForkOptions(br.forkNodeId);
                 return br;
             }
-            if (!outs.contains(boostToNodeId)) {
+            next = board.indexOf(boostToNodeId);
+            if (next < 0 || !board.hasEdge(cur, next)) {
                 throw new IllegalArgumentException("Invalid boostToNodeId for this fork");
             }
-            next = boostToNodeId;
         } else {
             // Only one path.
-            next = outs.get(0);
+            next = board.target(cur, 0);
         }
 
-        p.setPositionNodeId(next);
+        p.setPositionNodeId(board.idOf(next));
 
-        BoardNodeType t = board.getType(next);
+        BoardNodeType t = board.typeOf(next);
         if (t == BoardNodeType.JAIL) {
             p.setSkipTurns(1);
         }
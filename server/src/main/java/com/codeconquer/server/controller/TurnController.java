@@ -1,32 +1,41 @@
 package com.codeconquer.server.controller;
 
 import com.codeconquer.server.dto.TurnMoveResponse;
+import com.codeconquer.server.service.IdempotencyCache;
 import com.codeconquer.server.service.TurnService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/turn")
 public class TurnController {
 
     private final TurnService turnService;
+    private final IdempotencyCache idempotencyCache;
 
-    public TurnController(TurnService turnService) {
+    public TurnController(TurnService turnService, IdempotencyCache idempotencyCache) {
         this.turnService = turnService;
+        this.idempotencyCache = idempotencyCache;
     }
 
     /**
      * Server-authoritative D6 roll and movement.
+     * A repeated request with the same Idempotency-Key gets the original result.
      */
     @PostMapping("/rollD6")
     public ResponseEntity<TurnMoveResponse> rollD6(@RequestParam String sessionId,
-                                                   @RequestParam String playerId) {
-        try {
-            return ResponseEntity.ok(turnService.rollD6(sessionId, playerId));
-        } catch (IllegalArgumentException e) {
-            // Use 423 to match the app's existing "locked" UI pattern when the action isn't allowed.
-            return ResponseEntity.status(423).body(new TurnMoveResponse(sessionId, playerId, null, null, null, null, null, null, null, e.getMessage()));
-        }
+                                                   @RequestParam String playerId,
+                                                   @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey) {
+        return idempotencyCache.call(sessionId, playerId, "rollD6", idempotencyKey, List.of(), () -> {
+            try {
+                return ResponseEntity.ok(turnService.rollD6(sessionId, playerId));
+            } catch (IllegalArgumentException e) {
+                // Use 423 to match the app's existing "locked" UI pattern when the action isn't allowed.
+                return ResponseEntity.status(423).body(new TurnMoveResponse(sessionId, playerId, null, null, null, null, null, null, null, e.getMessage()));
+            }
+        });
     }
 
     /**
@@ -35,11 +44,14 @@ public class TurnController {
     @PostMapping("/choosePath")
     public ResponseEntity<TurnMoveResponse> choosePath(@RequestParam String sessionId,
                                                        @RequestParam String playerId,
-                                                       @RequestParam String toNodeId) {
-        try {
-            return ResponseEntity.ok(turnService.choosePath(sessionId, playerId, toNodeId));
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(423).body(new TurnMoveResponse(sessionId, playerId, null, null, null, null, null, null, null, e.getMessage()));
-        }
+                                                       @RequestParam String toNodeId,
+                                                       @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey) {
+        return idempotencyCache.call(sessionId, playerId, "choosePath", idempotencyKey, List.of(toNodeId), () -> {
+            try {
+                return ResponseEntity.ok(turnService.choosePath(sessionId, playerId, toNodeId));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(423).body(new TurnMoveResponse(sessionId, playerId, null, null, null, null, null, null, null, e.getMessage()));
+            }
+        });
     }
 }
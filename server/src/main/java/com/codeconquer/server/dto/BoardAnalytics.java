@@ -0,0 +1,17 @@
+package com.codeconquer.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BoardAnalytics {
+    // Content hash of the board the numbers were computed for.
+    private String boardVersion;
+    // Assumed probability of passing a challenge (a failed one sends the player back).
+    private double successRate;
+    private Double expectedTurnsFromStart;
+    private List<NodeAnalytics> nodes;
+}
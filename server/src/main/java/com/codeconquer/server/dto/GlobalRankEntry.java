@@ -0,0 +1,15 @@
+package com.codeconquer.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class GlobalRankEntry {
+    // 1-based; players with equal points share a rank.
+    private long rank;
+    private String playerId;
+    private String playerName;
+    private String sessionId;
+    private long totalPoints;
+}
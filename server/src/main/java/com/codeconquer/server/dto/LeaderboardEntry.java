@@ -6,6 +6,7 @@ import lombok.Data;
 @Data
 @AllArgsConstructor
 public class LeaderboardEntry {
+    private String playerId;
     private String playerName;
     private Long totalPoints;
     private Long attempts;
@@ -0,0 +1,26 @@
+package com.codeconquer.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Where a roll from a given node ends, as TurnService would resolve it.
+ */
+@Data
+@AllArgsConstructor
+public class MoveOutcome {
+    private int roll;
+
+    private String toNodeId;
+    private String toType;
+
+    // MOVED (steps used up / dead end), FORK (path choice with remainingSteps left),
+    // SPECIAL, JAIL or FINISH (landing ends the move).
+    private String stop;
+
+    // Fork state (only when stop == FORK)
+    private Integer remainingSteps;
+    private List<ForkOption> options;
+}
@@ -0,0 +1,18 @@
+package com.codeconquer.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class NodeAnalytics {
+    private String nodeId;
+    private String type;
+
+    // Fewest steps to FINISH (null if FINISH cannot be reached).
+    private Integer shortestDistance;
+    // Steps to FINISH when every fork is taken at random.
+    private Double expectedDistance;
+    // Own turns to FINISH when standing here at the start of a turn (null if unbounded).
+    private Double expectedTurns;
+}
@@ -10,8 +10,12 @@ import java.time.Instant;
 })
 public class GameEvent {
 
+    /** Ids reserved per sequence call; {@link com.codeconquer.server.service.GameEventWriter} uses the same blocks. */
+    public static final int ID_ALLOCATION = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "game_event_seq")
+    @SequenceGenerator(name = "game_event_seq", sequenceName = "game_event_seq", allocationSize = ID_ALLOCATION)
     private Long id;
 
     @Column(nullable = false)
@@ -47,6 +51,10 @@ public class GameEvent {
         return id;
     }
 
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public String getSessionId() {
         return sessionId;
     }
@@ -2,19 +2,32 @@ package com.codeconquer.server.model;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.Data;
 
 import java.time.Instant;
 
 @Data
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_game_session_code", columnNames = "code"))
 public class GameSession {
 
     @Id
     private String id; // UUID string
 
+    // Optimistic locking: concurrent writers (e.g. several server instances) fail instead of
+    // silently overwriting each other; see OptimisticRetry.
+    @Version
+    private Long version;
+
+    // Join code, upper case; handed out by SessionCodeAllocator.
     private String code;
 
+    // Board this session plays (see BoardGraphService); null means the default board.
+    private String boardId;
+
     private boolean started;
 
     // Session lifecycle: LOBBY -> IN_PROGRESS -> FINISHED
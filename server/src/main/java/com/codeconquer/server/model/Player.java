@@ -1,22 +1,43 @@
 package com.codeconquer.server.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 
 import java.time.Instant;
+import java.util.Locale;
 
 @Data
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_player_session_created", columnList = "sessionId,createdAt"),
+        @Index(name = "idx_player_session_score", columnList = "sessionId,totalScore"),
+        @Index(name = "idx_player_session_name_key", columnList = "sessionId,nameKey")
+})
 public class Player {
 
     @Id
     private String id; // UUID string
 
+    // Optimistic locking: concurrent writers (e.g. several server instances) fail instead of
+    // silently overwriting each other; see OptimisticRetry.
+    @Version
+    private Long version;
+
     private String sessionId;
 
     private String name;
 
+    // Upper-cased name for case-insensitive lookups through an index; set on every save.
+    @JsonIgnore
+    private String nameKey;
+
     // Variant 2 ready: emoji/icon + optional color
     private String icon;   // e.g. "🦊"
     private String color;  // reserved
@@ -65,4 +86,14 @@ public class Player {
     private boolean nextHardBecomesEasy;
 
     private Instant createdAt;
+
+    @PrePersist
+    @PreUpdate
+    void syncNameKey() {
+        nameKey = nameKeyOf(name);
+    }
+
+    public static String nameKeyOf(String name) {
+        return name == null ? null : name.toUpperCase(Locale.ROOT);
+    }
 }
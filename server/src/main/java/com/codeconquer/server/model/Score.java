@@ -4,16 +4,24 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.Data;
 
 import java.time.Instant;
 
 @Data
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_score_session_player", columnList = "sessionId,playerName")
+})
 public class Score {
 
+    // Pooled sequence (not IDENTITY) so inserts can be batched; ids come in blocks of 50.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "score_seq")
+    @SequenceGenerator(name = "score_seq", sequenceName = "score_seq", allocationSize = 50)
     private Long id;
 
     private String sessionId;
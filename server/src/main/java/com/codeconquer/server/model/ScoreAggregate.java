@@ -0,0 +1,45 @@
+package com.codeconquer.server.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.Data;
+
+/**
+ * Running totals of one player's scores in a session, updated together with every saved Score
+ * (see SessionScoreboard), so score summaries never aggregate the Score table.
+ */
+@Data
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_score_aggregate_session", columnList = "sessionId")
+})
+public class ScoreAggregate {
+
+    // A player belongs to exactly one session.
+    @Id
+    private String playerId;
+
+    @Version
+    private Long version;
+
+    private String sessionId;
+
+    private String playerName;
+
+    private long totalPoints;
+
+    // Id of the score that brought totalPoints to its value; orders equal totals in the global
+    // leaderboard (lower = reached first).
+    private Long reachedScoreId;
+
+    private long attempts;
+
+    // Mean over the scores that reported a time; timedAttempts of them so far.
+    private Double avgTimeMs;
+    private long timedAttempts;
+
+    private long totalErrors;
+}
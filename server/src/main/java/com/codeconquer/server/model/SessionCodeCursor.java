@@ -0,0 +1,27 @@
+package com.codeconquer.server.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Version;
+import lombok.Data;
+
+/**
+ * Persistent state of the session code allocator (one row); see SessionCodeAllocator.
+ */
+@Data
+@Entity
+public class SessionCodeCursor {
+
+    @Id
+    private String id;
+
+    // Instances reserve blocks of positions concurrently; the loser of a race retries.
+    @Version
+    private Long version;
+
+    // Key of the code permutation. Drawn once, so the sequence survives restarts.
+    private long permutationKey;
+
+    // First position of the permutation not yet handed out (0 .. 32^6).
+    private long nextPosition;
+}
@@ -2,10 +2,17 @@ package com.codeconquer.server.repository;
 
 import com.codeconquer.server.model.GameSession;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface GameSessionRepository extends JpaRepository<GameSession, String> {
 
-    Optional<GameSession> findByCodeIgnoreCase(String code);
+    // Codes are stored upper case; callers normalize so the lookup can use the unique index.
+    Optional<GameSession> findByCode(String code);
+
+    // The row's @Version only; changes with every write to the session.
+    @Query("SELECT s.version FROM GameSession s WHERE s.id = :id")
+    Optional<Long> findVersionById(@Param("id") String id);
 }
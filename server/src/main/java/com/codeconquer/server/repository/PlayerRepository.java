@@ -14,8 +14,14 @@ public interface PlayerRepository extends JpaRepository<Player, String> {
 
     List<Player> findBySessionIdOrderByTotalScoreDescCreatedAtAsc(String sessionId);
 
-    Optional<Player> findBySessionIdAndNameIgnoreCase(String sessionId, String name);
+    // nameKey = Player.nameKeyOf(name); indexed, unlike upper(name).
+    Optional<Player> findBySessionIdAndNameKey(String sessionId, String nameKey);
 
     @Query("SELECT COALESCE(MAX(p.turnOrder), 0) FROM Player p WHERE p.sessionId = :sessionId")
     int getMaxTurnOrder(@Param("sessionId") String sessionId);
+
+    // Ids and @Versions of the roster in join order (id breaks ties, so every instance agrees).
+    @Query("SELECT new com.codeconquer.server.repository.RowVersion(p.id, p.version) FROM Player p "
+            + "WHERE p.sessionId = :sessionId ORDER BY p.createdAt ASC, p.id ASC")
+    List<RowVersion> findVersionsBySessionId(@Param("sessionId") String sessionId);
 }
@@ -0,0 +1,6 @@
+package com.codeconquer.server.repository;
+
+/**
+ * Id and {@code @Version} of a row, for freshness checks that do not load the whole entity.
+ */
+public record RowVersion(String id, Long version) {}
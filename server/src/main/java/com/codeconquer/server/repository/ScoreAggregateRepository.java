@@ -0,0 +1,11 @@
+package com.codeconquer.server.repository;
+
+import com.codeconquer.server.model.ScoreAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ScoreAggregateRepository extends JpaRepository<ScoreAggregate, String> {
+
+    List<ScoreAggregate> findBySessionId(String sessionId);
+}
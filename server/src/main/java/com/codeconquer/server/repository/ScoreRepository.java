@@ -1,11 +1,14 @@
 package com.codeconquer.server.repository;
 
 import com.codeconquer.server.model.Score;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ScoreRepository extends JpaRepository<Score, Long> {
 
@@ -17,18 +20,18 @@ public interface ScoreRepository extends JpaRepository<Score, Long> {
 
     List<Score> findBySessionIdOrderByIdAsc(String sessionId);
 
-    @Query("""
-        SELECT new com.codeconquer.server.dto.LeaderboardEntry(
-            s.playerName,
-            SUM(s.points),
-            COUNT(s),
-            AVG(s.timeMs),
-            SUM(COALESCE(s.errors, 0))
-        )
-        FROM Score s
-        WHERE s.sessionId = :sessionId
-        GROUP BY s.playerName
-        ORDER BY SUM(s.points) DESC, COUNT(s) DESC
-    """)
-    java.util.List<com.codeconquer.server.dto.LeaderboardEntry> getLeaderboardForSession(@Param("sessionId") String sessionId);
+    /**
+     * Keyset page: the scores after {@code afterId}, in id order.
+     */
+    List<Score> findByIdGreaterThanOrderByIdAsc(long afterId, Pageable pageable);
+
+    /**
+     * All scores in id order, fetched from the driver in chunks. Read-only, so Hibernate keeps
+     * no dirty-checking snapshots; the caller must consume it inside a transaction and close it.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Score> streamAllByOrderByIdAsc();
 }
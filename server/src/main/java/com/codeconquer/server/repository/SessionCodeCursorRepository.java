@@ -0,0 +1,7 @@
+package com.codeconquer.server.repository;
+
+import com.codeconquer.server.model.SessionCodeCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SessionCodeCursorRepository extends JpaRepository<SessionCodeCursor, String> {
+}
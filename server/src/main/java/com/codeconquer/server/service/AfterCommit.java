@@ -0,0 +1,40 @@
+package com.codeconquer.server.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers side effects (event log, pushes, change marks) until the surrounding transaction
+ * has committed, so a rolled-back or retried action never announces state nobody can read.
+ * Without a transaction the task runs immediately.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {}
+
+    static void run(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
+        });
+    }
+
+    /**
+     * Undo for in-memory state changed eagerly inside a transaction; runs if it rolls back.
+     */
+    static void onRollback(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) task.run();
+            }
+        });
+    }
+}
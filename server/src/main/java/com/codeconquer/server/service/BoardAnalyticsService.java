@@ -0,0 +1,203 @@
+package com.codeconquer.server.service;
+
+import com.codeconquer.server.board.BoardGraph;
+import com.codeconquer.server.board.CompiledBoard;
+import com.codeconquer.server.dto.BoardAnalytics;
+import com.codeconquer.server.dto.NodeAnalytics;
+import com.codeconquer.server.model.BoardNodeType;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Board balancing numbers, computed in-process from the compiled {@link BoardGraph}:
+ *
+ * - shortest distance to FINISH (reverse BFS over the outgoing edges),
+ * - expected distance to FINISH when forks are taken at random,
+ * - expected own turns to FINISH, a Markov chain over D6 moves solved by value iteration.
+ *   Movement follows TurnService: forks are chosen to minimize the remaining turns, landing
+ *   on JAIL costs one skipped turn, SPECIAL ends the move (card effects are not modeled), and
+ *   a failed challenge (probability 1 - successRate) sends the player back to where the turn began.
+ *
+ * Results are cached per board version (content hash) and success rate.
+ */
+@Service
+public class BoardAnalyticsService {
+
+    private static final double EPSILON = 1e-9;
+    private static final int MAX_ITERATIONS = 100_000;
+
+    private final BoardGraphService boardService;
+    private final Map<String, BoardAnalytics> cache = new ConcurrentHashMap<>();
+
+    public BoardAnalyticsService(BoardGraphService boardService) {
+        this.boardService = boardService;
+    }
+
+    /**
+     * Success rate is rounded to 0.05 steps (min 0.1) so the cache stays small.
+     */
+    public BoardAnalytics getAnalytics(String boardId, double successRate) {
+        CompiledBoard board = boardService.get(boardId);
+        double rate = normalizeRate(successRate);
+        String key = board.getContentHash() + ":" + rate;
+        return cache.computeIfAbsent(key, k -> compute(board.getGraph(), board.getContentHash(), rate));
+    }
+
+    public static double normalizeRate(double successRate) {
+        if (Double.isNaN(successRate)) return 1.0;
+        double r = Math.round(successRate * 20) / 20.0;
+        return Math.max(0.1, Math.min(1.0, r));
+    }
+
+    private BoardAnalytics compute(BoardGraph board, String version, double rate) {
+        int[] shortest = shortestDistances(board);
+        double[] expectedDistance = expectedDistances(board, shortest);
+        double[] expectedTurns = expectedTurns(board, shortest, rate);
+
+        List<NodeAnalytics> nodes = new ArrayList<>(board.nodeCount());
+        for (int v = 0; v < board.nodeCount(); v++) {
+            nodes.add(new NodeAnalytics(
+                    board.idOf(v),
+                    board.typeOf(v).name(),
+                    shortest[v] < 0 ? null : shortest[v],
+                    finiteOrNull(expectedDistance[v]),
+                    finiteOrNull(expectedTurns[v])
+            ));
+        }
+        return new BoardAnalytics(version, rate, finiteOrNull(expectedTurns[board.startIndex()]), List.copyOf(nodes));
+    }
+
+    /**
+     * BFS from FINISH over reversed edges; -1 where FINISH is unreachable.
+     */
+    static int[] shortestDistances(BoardGraph board) {
+        int n = board.nodeCount();
+
+        // Reverse adjacency in CSR form.
+        int[] revStart = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            for (int k = 0; k < board.outDegree(v); k++) revStart[board.target(v, k) + 1]++;
+        }
+        for (int v = 0; v < n; v++) revStart[v + 1] += revStart[v];
+        int[] revFrom = new int[revStart[n]];
+        int[] fill = Arrays.copyOf(revStart, n);
+        for (int v = 0; v < n; v++) {
+            for (int k = 0; k < board.outDegree(v); k++) revFrom[fill[board.target(v, k)]++] = v;
+        }
+
+        int[] dist = new int[n];
+        Arrays.fill(dist, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        dist[board.finishIndex()] = 0;
+        queue.add(board.finishIndex());
+        while (!queue.isEmpty()) {
+            int w = queue.poll();
+            for (int e = revStart[w]; e < revStart[w + 1]; e++) {
+                int v = revFrom[e];
+                if (dist[v] >= 0) continue;
+                dist[v] = dist[w] + 1;
+                queue.add(v);
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * E[v] = 1 + mean of E over v's successors, E[FINISH] = 0.
+     */
+    static double[] expectedDistances(BoardGraph board, int[] shortest) {
+        int n = board.nodeCount();
+        double[] e = initialValues(board, shortest);
+        for (int it = 0; it < MAX_ITERATIONS; it++) {
+            double delta = 0;
+            boolean changed = false;
+            for (int v = 0; v < n; v++) {
+                if (v == board.finishIndex() || Double.isInfinite(e[v])) continue;
+                double sum = 0;
+                int degree = board.outDegree(v);
+                for (int k = 0; k < degree; k++) sum += e[board.target(v, k)];
+                double next = 1 + sum / degree;
+                // A node that can be forced into a dead end never finishes: infinite, stays infinite.
+                if (Double.isInfinite(next)) changed = true;
+                else delta = Math.max(delta, Math.abs(next - e[v]));
+                e[v] = next;
+            }
+            if (delta < EPSILON && !changed) break;
+        }
+        return e;
+    }
+
+    static double[] expectedTurns(BoardGraph board, int[] shortest, double rate) {
+        int n = board.nodeCount();
+        double[] t = initialValues(board, shortest);
+        for (int it = 0; it < MAX_ITERATIONS; it++) {
+            double delta = 0;
+            boolean changed = false;
+            for (int v = 0; v < n; v++) {
+                if (v == board.finishIndex() || Double.isInfinite(t[v])) continue;
+                double sum = 0;
+                for (int roll = 1; roll <= BoardGraph.MAX_ROLL; roll++) {
+                    sum += outcome(board, t, v, v, roll, rate);
+                }
+                double next = 1 + sum / BoardGraph.MAX_ROLL;
+                // A node that can be forced into a dead end never finishes: infinite, stays infinite.
+                if (Double.isInfinite(next)) changed = true;
+                else delta = Math.max(delta, Math.abs(next - t[v]));
+                t[v] = next;
+            }
+            if (delta < EPSILON && !changed) break;
+        }
+        return t;
+    }
+
+    /**
+     * Remaining turns after moving {@code steps} from {@code from} in a turn that began at {@code turnStart}.
+     */
+    private static double outcome(BoardGraph board, double[] t, int turnStart, int from, int steps, double rate) {
+        long stop = board.move(from, steps);
+        int to = BoardGraph.stopNode(stop);
+        int remaining = BoardGraph.stopRemaining(stop);
+
+        if (remaining < steps && board.isLandingStop(to)) return landing(board, t, to);
+        if (remaining > 0 && board.outDegree(to) > 1 && board.typeOf(to) != BoardNodeType.FINISH) {
+            // Fork: the player takes the better branch (one step onto it, then the rest).
+            double best = Double.POSITIVE_INFINITY;
+            for (int k = 0; k < board.outDegree(to); k++) {
+                int w = board.target(to, k);
+                double value = board.isLandingStop(w)
+                        ? landing(board, t, w)
+                        : outcome(board, t, turnStart, w, remaining - 1, rate);
+                best = Math.min(best, value);
+            }
+            return best;
+        }
+        // Regular field: a challenge decides whether the move sticks.
+        return rate * t[to] + (1 - rate) * t[turnStart];
+    }
+
+    private static double landing(BoardGraph board, double[] t, int node) {
+        return switch (board.typeOf(node)) {
+            case FINISH -> 0;
+            case JAIL -> 1 + t[node];
+            default -> t[node]; // SPECIAL
+        };
+    }
+
+    private static double[] initialValues(BoardGraph board, int[] shortest) {
+        double[] values = new double[board.nodeCount()];
+        for (int v = 0; v < values.length; v++) {
+            values[v] = shortest[v] < 0 ? Double.POSITIVE_INFINITY : 0;
+        }
+        return values;
+    }
+
+    private static Double finiteOrNull(double value) {
+        return Double.isFinite(value) ? value : null;
+    }
+}
@@ -1,163 +1,125 @@
 package com.codeconquer.server.service;
 
-import com.codeconquer.server.board.BoardEdgeDef;
-import com.codeconquer.server.board.BoardGraph;
 import com.codeconquer.server.board.BoardGraphDefinition;
-import com.codeconquer.server.board.BoardNodeDef;
-import com.codeconquer.server.dto.ForkOption;
-import com.codeconquer.server.model.BoardNodeType;
+import com.codeconquer.server.board.BoardSnapshot;
+import com.codeconquer.server.board.CompiledBoard;
+import com.codeconquer.server.model.GameSession;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.core.io.ClassPathResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.TreeMap;
 
 /**
- * Loads the board graph from resources at startup.
+ * Registry of the boards this server can play, loaded at startup.
+ *
+ * Every *.json matching {@code codeconquer.boards.location} (default: the bundled
+ * classpath:board/*.json; point it at e.g. file:/etc/codeconquer/boards/*.json for more)
+ * is validated and compiled once; the file name without .json is the board id. Sessions
+ * pick a board when created ({@link GameSession#getBoardId()}); sessions without one play
+ * {@code codeconquer.boards.default}.
+ *
+ * Boards bundled with the build come with a precompiled {@link BoardSnapshot}
+ * ({@code <id>.board} next to the JSON); it is used whenever it was built from the same
+ * file content, so startup skips JSON parsing, validation and table building.
  */
 @Service
 public class BoardGraphService {
 
-    private final BoardGraph board;
+    private static final Logger log = LoggerFactory.getLogger(BoardGraphService.class);
 
-    public BoardGraphService(ObjectMapper objectMapper) {
-        this.board = loadFromJson(objectMapper);
-    }
-
-    public BoardGraph getBoard() {
-        return board;
-    }
+    private final Map<String, CompiledBoard> boards;
+    private final CompiledBoard defaultBoard;
 
-    public String getStartNodeId() {
-        return board.getStartNodeId();
-    }
-
-    public String getFinishNodeId() {
-        return board.getFinishNodeId();
+    public BoardGraphService(ObjectMapper objectMapper,
+                             @Value("${codeconquer.boards.location:classpath:board/*.json}") String location,
+                             @Value("${codeconquer.boards.default:board}") String defaultId) {
+        this.boards = loadAll(objectMapper, location);
+        this.defaultBoard = boards.get(defaultId);
+        if (defaultBoard == null) {
+            throw new IllegalStateException("Default board '" + defaultId + "' not found in " + location);
+        }
     }
 
-    public String getJailNodeId() {
-        return board.getJailNodeId();
+    public CompiledBoard getDefault() {
+        return defaultBoard;
     }
 
     /**
-     * Returns labeled fork options for UI. If the fork is a known board fork,
-     * we label the two outgoing edges as "Go straight" vs "Take shortcut".
-     * Otherwise we fall back to generic labels.
+     * The board with this id; null/blank means the default board.
      */
-    public List<ForkOption> getForkOptions(String forkNodeId) {
-        if (forkNodeId == null || forkNodeId.isBlank()) return List.of();
-        List<String> outs = board.outgoing(forkNodeId);
-        if (outs == null || outs.isEmpty()) return List.of();
-
-        // Hard-coded mapping (from design doc). If your board JSON changes, update here.
-        // fork -> {straightTo, shortcutTo}
-        Map<String, String> straight = Map.of(
-                "n12", "n13",
-                "n21", "n20",
-                "n48", "n49",
-                "n59", "n58"
-        );
-        Map<String, String> shortcut = Map.of(
-                "n12", "n16",
-                "n21", "n35",
-                "n48", "n52",
-                "n59", "n69"
-        );
-
-        List<ForkOption> options = new ArrayList<>();
-        String straightTo = straight.get(forkNodeId);
-        String shortcutTo = shortcut.get(forkNodeId);
-
-        for (String to : outs) {
-            if (to == null) continue;
-            if (shortcutTo != null && shortcutTo.equals(to)) {
-                options.add(new ForkOption(to, "Take shortcut"));
-            } else if (straightTo != null && straightTo.equals(to)) {
-                options.add(new ForkOption(to, "Go straight"));
-            } else {
-                options.add(new ForkOption(to, "Choose path"));
-            }
-        }
-
-        // Prefer showing shortcut first (nice UX).
-        options.sort((a, b) -> {
-            if ("Take shortcut".equals(a.getLabel()) && !"Take shortcut".equals(b.getLabel())) return -1;
-            if (!"Take shortcut".equals(a.getLabel()) && "Take shortcut".equals(b.getLabel())) return 1;
-            return a.getTo().compareTo(b.getTo());
-        });
-
-        return options;
+    public CompiledBoard get(String boardId) {
+        if (boardId == null || boardId.isBlank()) return defaultBoard;
+        CompiledBoard board = boards.get(boardId);
+        if (board == null) throw new IllegalArgumentException("Unknown board " + boardId);
+        return board;
     }
 
-    private BoardGraph loadFromJson(ObjectMapper objectMapper) {
-        ClassPathResource res = new ClassPathResource("board/board.json");
-        try (InputStream in = res.getInputStream()) {
-            BoardGraphDefinition def = objectMapper.readValue(in, BoardGraphDefinition.class);
-            validate(def);
-
-            Map<String, BoardNodeType> nodeTypeById = new HashMap<>();
-            for (BoardNodeDef n : def.getNodes()) {
-                nodeTypeById.put(n.getId(), n.getType());
-            }
-
-            Map<String, List<String>> outgoingById = new HashMap<>();
-            for (BoardEdgeDef e : def.getEdges()) {
-                outgoingById.computeIfAbsent(e.getFrom(), k -> new ArrayList<>()).add(e.getTo());
-            }
-
-            String start = def.getNodes().stream()
-                    .filter(n -> n.getType() == BoardNodeType.START)
-                    .map(BoardNodeDef::getId)
-                    .findFirst().orElseThrow(() -> new IllegalStateException("START node missing"));
-
-            String finish = def.getNodes().stream()
-                    .filter(n -> n.getType() == BoardNodeType.FINISH)
-                    .map(BoardNodeDef::getId)
-                    .findFirst().orElseThrow(() -> new IllegalStateException("FINISH node missing"));
+    public CompiledBoard forSession(GameSession s) {
+        return get(s.getBoardId());
+    }
 
-            String jail = def.getNodes().stream()
-                    .filter(n -> n.getType() == BoardNodeType.JAIL)
-                    .map(BoardNodeDef::getId)
-                    .findFirst().orElse(null);
+    public List<String> getBoardIds() {
+        return List.copyOf(boards.keySet());
+    }
 
-            return new BoardGraph(def, nodeTypeById, outgoingById, start, finish, jail);
+    private Map<String, CompiledBoard> loadAll(ObjectMapper objectMapper, String location) {
+        Resource[] resources;
+        try {
+            resources = new PathMatchingResourcePatternResolver().getResources(location);
         } catch (IOException e) {
-            throw new IllegalStateException("Failed to load board/board.json", e);
+            throw new IllegalStateException("Failed to list boards at " + location, e);
         }
-    }
 
-    private void validate(BoardGraphDefinition def) {
-        if (def == null) throw new IllegalStateException("board.json is empty");
-        if (def.getNodes() == null || def.getNodes().isEmpty()) throw new IllegalStateException("board.json: nodes missing");
-        if (def.getEdges() == null || def.getEdges().isEmpty()) throw new IllegalStateException("board.json: edges missing");
-
-        Map<String, BoardNodeDef> byId = new HashMap<>();
-        for (BoardNodeDef n : def.getNodes()) {
-            if (n.getId() == null || n.getId().isBlank()) throw new IllegalStateException("board.json: node id missing");
-            if (n.getType() == null) throw new IllegalStateException("board.json: node type missing for id=" + n.getId());
-            if (byId.put(n.getId(), n) != null) throw new IllegalStateException("board.json: duplicate node id=" + n.getId());
+        Map<String, CompiledBoard> loaded = new TreeMap<>();
+        for (Resource res : resources) {
+            String name = res.getFilename();
+            if (name == null || !name.endsWith(".json")) continue;
+            String id = name.substring(0, name.length() - ".json".length());
+            try (InputStream in = res.getInputStream()) {
+                byte[] raw = in.readAllBytes();
+                String hash = CompiledBoard.contentHash(raw);
+                CompiledBoard board = readSnapshot(res, id, hash);
+                if (board == null) {
+                    BoardGraphDefinition def = objectMapper.readValue(raw, BoardGraphDefinition.class);
+                    board = CompiledBoard.compile(id, hash, def);
+                }
+                loaded.put(id, board);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to load board " + name, e);
+            } catch (IllegalStateException e) {
+                throw new IllegalStateException("Invalid board " + name + ": " + e.getMessage(), e);
+            }
         }
+        if (loaded.isEmpty()) throw new IllegalStateException("No boards found at " + location);
+        log.info("Loaded boards {}", loaded.keySet());
+        return Collections.unmodifiableMap(loaded);
+    }
 
-        long startCount = def.getNodes().stream().filter(n -> n.getType() == BoardNodeType.START).count();
-        long finishCount = def.getNodes().stream().filter(n -> n.getType() == BoardNodeType.FINISH).count();
-        if (startCount != 1) throw new IllegalStateException("board.json: expected exactly 1 START node, got " + startCount);
-        if (finishCount != 1) throw new IllegalStateException("board.json: expected exactly 1 FINISH node, got " + finishCount);
-
-        for (BoardEdgeDef e : def.getEdges()) {
-            if (e.getFrom() == null || e.getFrom().isBlank()) throw new IllegalStateException("board.json: edge.from missing");
-            if (e.getTo() == null || e.getTo().isBlank()) throw new IllegalStateException("board.json: edge.to missing");
-            if (!byId.containsKey(e.getFrom())) throw new IllegalStateException("board.json: edge.from unknown node " + e.getFrom());
-            if (!byId.containsKey(e.getTo())) throw new IllegalStateException("board.json: edge.to unknown node " + e.getTo());
+    /**
+     * The snapshot built from exactly this board file, or null (none, stale or unreadable).
+     */
+    private CompiledBoard readSnapshot(Resource json, String id, String hash) {
+        try {
+            Resource snapshot = json.createRelative(id + BoardSnapshot.EXTENSION);
+            if (!snapshot.exists()) return null;
+            try (InputStream in = snapshot.getInputStream()) {
+                CompiledBoard board = BoardSnapshot.read(id, hash, in);
+                if (board == null) log.warn("Board snapshot {} is stale, loading {}.json", snapshot.getFilename(), id);
+                return board;
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read board snapshot for {}, loading JSON", id, e);
+            return null;
         }
-
-        // Sanity: finish node should exist and can have no outgoing edges; others typically have at least one.
-        // We don't strictly enforce out-degree here because special rules might add teleports later.
     }
 }
@@ -0,0 +1,77 @@
+package com.codeconquer.server.service;
+
+import com.codeconquer.server.model.GameEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Long-poll variant of the event feed for networks that block WebSockets/SSE.
+ *
+ * A request with nothing new to return is parked as a {@link DeferredResult} (no servlet
+ * thread held) and completed as soon as {@code publishEvent} records a newer event,
+ * or with an empty list once the wait expires.
+ */
+@Service
+public class GameEventLongPollService {
+
+    /** Upper bound for waitMs; stays below typical proxy idle timeouts. */
+    public static final long MAX_WAIT_MS = 30_000;
+
+    private final GameEventService eventService;
+    private final Map<String, List<Waiter>> waitersBySession = new ConcurrentHashMap<>();
+
+    public GameEventLongPollService(GameEventService eventService) {
+        this.eventService = eventService;
+    }
+
+    public DeferredResult<List<GameEvent>> awaitEventsAfter(String sessionId, long afterSeq, long waitMs) {
+        long timeout = Math.max(0, Math.min(waitMs, MAX_WAIT_MS));
+        List<GameEvent> ready = eventService.getEventsAfter(sessionId, afterSeq);
+
+        DeferredResult<List<GameEvent>> result = new DeferredResult<>(timeout, List.of());
+        if (!ready.isEmpty() || timeout == 0) {
+            result.setResult(ready);
+            return result;
+        }
+
+        Waiter w = new Waiter(afterSeq, result);
+        waitersBySession.compute(sessionId, (k, list) -> {
+            List<Waiter> ws = list == null ? new CopyOnWriteArrayList<>() : list;
+            ws.add(w);
+            return ws;
+        });
+        result.onCompletion(() -> removeWaiter(sessionId, w));
+
+        // An event recorded between the first read and registering would otherwise wait for the timeout.
+        List<GameEvent> raced = eventService.getEventsAfter(sessionId, afterSeq);
+        if (!raced.isEmpty()) result.setResult(raced);
+        return result;
+    }
+
+    /**
+     * Completes every parked request of the session that has not seen {@code seq} yet.
+     */
+    public void notifyPublished(String sessionId, long seq) {
+        if (sessionId == null) return;
+        List<Waiter> ws = waitersBySession.get(sessionId);
+        if (ws == null) return;
+        for (Waiter w : ws) {
+            if (w.afterSeq >= seq || w.result.isSetOrExpired()) continue;
+            w.result.setResult(eventService.getEventsAfter(sessionId, w.afterSeq));
+        }
+    }
+
+    private void removeWaiter(String sessionId, Waiter w) {
+        waitersBySession.computeIfPresent(sessionId, (k, list) -> {
+            list.remove(w);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private record Waiter(long afterSeq, DeferredResult<List<GameEvent>> result) {}
+}
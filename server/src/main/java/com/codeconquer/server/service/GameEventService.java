@@ -6,24 +6,62 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Read side of the session event feed.
+ *
+ * The newest events of each active session are kept in a small ring buffer, filled by
+ * {@link #record(GameEvent)} right after an event is persisted. Polls (which almost always
+ * ask for the last few seconds) are answered from memory; only cursors older than the
+ * buffer go to the database.
+ */
 @Service
 public class GameEventService {
 
     /** UI should stay compact on mobile. */
     public static final int MAX_RETURNED_EVENTS = 15;
 
+    /** Events kept per session; comfortably more than one poll window. */
+    static final int RING_CAPACITY = 64;
+
+    /** Sessions with a buffer; least recently used ones are dropped first. */
+    static final int MAX_BUFFERED_SESSIONS = 512;
+
     private final GameEventRepository repo;
 
+    private final Map<String, EventRing> rings = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, EventRing> eldest) {
+                    return size() > MAX_BUFFERED_SESSIONS;
+                }
+            });
+
     public GameEventService(GameEventRepository repo) {
         this.repo = repo;
     }
 
+    /**
+     * Adds a persisted event to its session's buffer.
+     */
+    public void record(GameEvent evt) {
+        if (evt == null || evt.getSessionId() == null) return;
+        EventRing ring = rings.computeIfAbsent(evt.getSessionId(), k -> EventRing.startingAt(evt.getSeq()));
+        ring.append(evt);
+    }
+
     public List<GameEvent> getEventsAfter(String sessionId, long afterSeq) {
         if (sessionId == null || sessionId.isBlank()) throw new IllegalArgumentException("sessionId required");
         if (afterSeq < 0) afterSeq = 0;
+
+        List<GameEvent> buffered = ringFor(sessionId).after(afterSeq, MAX_RETURNED_EVENTS);
+        if (buffered != null) return buffered;
+
         return repo.findBySessionIdAndSeqGreaterThanOrderBySeqAsc(
                 sessionId,
                 afterSeq,
@@ -35,6 +73,10 @@ public class GameEventService {
         if (sessionId == null || sessionId.isBlank()) throw new IllegalArgumentException("sessionId required");
         if (limit <= 0) limit = 10;
         if (limit > MAX_RETURNED_EVENTS) limit = MAX_RETURNED_EVENTS;
+
+        List<GameEvent> buffered = ringFor(sessionId).latest(limit);
+        if (buffered != null) return buffered;
+
         List<GameEvent> desc = repo.findBySessionIdOrderBySeqDesc(sessionId, PageRequest.of(0, limit));
         if (desc == null || desc.isEmpty()) return Collections.emptyList();
         // Convert to ascending order for UI.
@@ -42,4 +84,98 @@ public class GameEventService {
         asc.sort((a, b) -> Long.compare(a.getSeq(), b.getSeq()));
         return asc;
     }
+
+    /**
+     * Buffer of a session, seeded from the database on first access (e.g. after a restart).
+     * A publish racing the seed is safe: the ring resets on any seq gap.
+     */
+    private EventRing ringFor(String sessionId) {
+        EventRing ring = rings.get(sessionId);
+        if (ring != null) return ring;
+
+        List<GameEvent> desc = repo.findBySessionIdOrderBySeqDesc(sessionId, PageRequest.of(0, RING_CAPACITY));
+        EventRing seeded = EventRing.seed(desc == null ? List.of() : desc);
+        EventRing existing = rings.putIfAbsent(sessionId, seeded);
+        return existing != null ? existing : seeded;
+    }
+
+    /**
+     * Fixed-size buffer holding the contiguous seq range [coveredFrom, newestSeq].
+     * Every event of the session in that range is in the buffer.
+     */
+    private static final class EventRing {
+        private final GameEvent[] slots = new GameEvent[RING_CAPACITY];
+        private long coveredFrom;
+        private long newestSeq;
+
+        private EventRing(long coveredFrom) {
+            this.coveredFrom = coveredFrom;
+            this.newestSeq = coveredFrom - 1;
+        }
+
+        static EventRing startingAt(long seq) {
+            return new EventRing(seq);
+        }
+
+        /**
+         * Builds a ring from the newest events (descending). If fewer than a full ring came
+         * back, the session has no older events and the ring covers it from seq 1.
+         */
+        static EventRing seed(List<GameEvent> desc) {
+            if (desc.isEmpty()) return new EventRing(1);
+
+            // Keep only the contiguous tail; anything before a gap stays a DB read.
+            int tail = 1;
+            while (tail < desc.size() && desc.get(tail).getSeq() == desc.get(tail - 1).getSeq() - 1) tail++;
+
+            boolean complete = desc.size() < RING_CAPACITY && tail == desc.size();
+            EventRing ring = new EventRing(complete ? 1 : desc.get(tail - 1).getSeq());
+            for (int i = tail - 1; i >= 0; i--) ring.put(desc.get(i));
+            return ring;
+        }
+
+        synchronized void append(GameEvent evt) {
+            long seq = evt.getSeq();
+            if (seq <= newestSeq) return; // already buffered
+            if (seq != newestSeq + 1) {
+                // Gap (concurrent publish or failed save): restart coverage at this event.
+                Arrays.fill(slots, null);
+                coveredFrom = seq;
+            }
+            put(evt);
+        }
+
+        private void put(GameEvent evt) {
+            slots[slot(evt.getSeq())] = evt;
+            newestSeq = evt.getSeq();
+            coveredFrom = Math.max(coveredFrom, newestSeq - RING_CAPACITY + 1);
+        }
+
+        /**
+         * Events with seq > afterSeq (ascending, at most max), or null if the cursor is older than the buffer.
+         */
+        synchronized List<GameEvent> after(long afterSeq, int max) {
+            if (afterSeq + 1 < coveredFrom) return null;
+            List<GameEvent> out = new ArrayList<>();
+            for (long seq = afterSeq + 1; seq <= newestSeq && out.size() < max; seq++) {
+                GameEvent evt = slots[slot(seq)];
+                // Seqs whose save failed never made it into the log; skip them like the DB would.
+                if (evt != null && evt.getSeq() == seq) out.add(evt);
+            }
+            return out;
+        }
+
+        private static int slot(long seq) {
+            return (int) Math.floorMod(seq, (long) RING_CAPACITY);
+        }
+
+        /**
+         * The newest {@code limit} events (ascending), or null if the buffer cannot tell.
+         */
+        synchronized List<GameEvent> latest(int limit) {
+            long held = newestSeq - coveredFrom + 1;
+            if (held < limit && coveredFrom > 1) return null;
+            return after(Math.max(coveredFrom - 1, newestSeq - limit), limit);
+        }
+    }
 }
@@ -0,0 +1,196 @@
+package com.codeconquer.server.service;
+
+import com.codeconquer.server.model.GameEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes session events to connected clients via Server-Sent Events.
+ *
+ * Each event is sent with its seq as SSE id, so a reconnecting EventSource
+ * resumes via Last-Event-ID without losing or duplicating events.
+ *
+ * {@link #publish} runs inside game actions (under the session lock), so it only queues the
+ * event per subscriber; a sender thread writes each subscriber's queue in order. A slow client
+ * therefore only delays itself. One that falls {@link #MAX_PENDING} events behind is closed
+ * and catches up from the buffer when it reconnects.
+ */
+@Service
+public class GameEventStreamService {
+
+    /** Streams are long-lived; EventSource reconnects on its own after a timeout. */
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    /** Queued events per subscriber before it is dropped. */
+    static final int MAX_PENDING = 256;
+
+    private final GameEventService eventService;
+    private final Map<String, List<Subscriber>> subscribersBySession = new ConcurrentHashMap<>();
+    private final AtomicInteger senderCount = new AtomicInteger();
+    // Sends block on slow sockets, so threads are not capped; idle ones go away after a minute.
+    private final ExecutorService senders = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "sse-sender-" + senderCount.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    public GameEventStreamService(GameEventService eventService) {
+        this.eventService = eventService;
+    }
+
+    /**
+     * Opens a stream for a session and replays everything after {@code afterSeq}.
+     */
+    public SseEmitter subscribe(String sessionId, long afterSeq) {
+        if (sessionId == null || sessionId.isBlank()) throw new IllegalArgumentException("sessionId required");
+
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber sub = new Subscriber(emitter, Math.max(0, afterSeq));
+        emitter.onCompletion(() -> removeSubscriber(sessionId, sub));
+        emitter.onTimeout(() -> removeSubscriber(sessionId, sub));
+        emitter.onError(e -> removeSubscriber(sessionId, sub));
+
+        // Hold the subscriber while registering + replaying so a concurrent publish
+        // cannot overtake the replay (the seq cursor then drops duplicates).
+        synchronized (sub) {
+            subscribersBySession.compute(sessionId, (k, list) -> {
+                List<Subscriber> subs = list == null ? new CopyOnWriteArrayList<>() : list;
+                subs.add(sub);
+                return subs;
+            });
+            long cursor = sub.lastSentSeq;
+            while (true) {
+                List<GameEvent> missed = eventService.getEventsAfter(sessionId, cursor);
+                if (missed.isEmpty()) break;
+                for (GameEvent evt : missed) {
+                    if (!sub.send(evt)) {
+                        removeSubscriber(sessionId, sub);
+                        return emitter;
+                    }
+                    cursor = evt.getSeq();
+                }
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * Queues a freshly recorded event for every open stream of its session; never blocks on I/O.
+     */
+    public void publish(GameEvent evt) {
+        if (evt == null || evt.getSessionId() == null) return;
+        List<Subscriber> subs = subscribersBySession.get(evt.getSessionId());
+        if (subs == null) return;
+        for (Subscriber sub : subs) {
+            if (sub.pendingCount.incrementAndGet() > MAX_PENDING) {
+                removeSubscriber(evt.getSessionId(), sub);
+                // complete() waits for a send in progress, so not on this thread either.
+                senders.execute(sub.emitter::complete);
+                continue;
+            }
+            sub.pending.add(evt);
+            scheduleDrain(evt.getSessionId(), sub);
+        }
+    }
+
+    /**
+     * Comment-only heartbeat so proxies keep idle streams open and dead clients get dropped.
+     */
+    @Scheduled(fixedRate = 20_000)
+    public void heartbeat() {
+        for (Map.Entry<String, List<Subscriber>> e : subscribersBySession.entrySet()) {
+            for (Subscriber sub : e.getValue()) {
+                senders.execute(() -> {
+                    if (!sub.ping()) removeSubscriber(e.getKey(), sub);
+                });
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+    }
+
+    /**
+     * Starts a sender for the subscriber unless one is already writing its queue.
+     */
+    private void scheduleDrain(String sessionId, Subscriber sub) {
+        if (sub.draining.compareAndSet(false, true)) senders.execute(() -> drain(sessionId, sub));
+    }
+
+    private void drain(String sessionId, Subscriber sub) {
+        try {
+            GameEvent evt;
+            while ((evt = sub.pending.poll()) != null) {
+                sub.pendingCount.decrementAndGet();
+                if (!sub.send(evt)) {
+                    removeSubscriber(sessionId, sub);
+                    sub.pending.clear();
+                    return;
+                }
+            }
+        } finally {
+            sub.draining.set(false);
+        }
+        // An event queued after the last poll but before the flag was cleared.
+        if (!sub.pending.isEmpty()) scheduleDrain(sessionId, sub);
+    }
+
+    private void removeSubscriber(String sessionId, Subscriber sub) {
+        subscribersBySession.computeIfPresent(sessionId, (k, list) -> {
+            list.remove(sub);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private static class Subscriber {
+        final SseEmitter emitter;
+        final Queue<GameEvent> pending = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pendingCount = new AtomicInteger();
+        final AtomicBoolean draining = new AtomicBoolean();
+        long lastSentSeq;
+
+        Subscriber(SseEmitter emitter, long lastSentSeq) {
+            this.emitter = emitter;
+            this.lastSentSeq = lastSentSeq;
+        }
+
+        synchronized boolean send(GameEvent evt) {
+            if (evt.getSeq() <= lastSentSeq) return true;
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(evt.getSeq()))
+                        .data(evt, MediaType.APPLICATION_JSON));
+                lastSentSeq = evt.getSeq();
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                return false;
+            }
+        }
+
+        synchronized boolean ping() {
+            try {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                return false;
+            }
+        }
+    }
+}
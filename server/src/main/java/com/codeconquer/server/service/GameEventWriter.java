@@ -0,0 +1,213 @@
+package com.codeconquer.server.service;
+
+import com.codeconquer.server.model.GameEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind for the session event log.
+ *
+ * publishEvent only enqueues; a background thread inserts events with JDBC batches once
+ * {@link #BATCH_SIZE} are waiting or {@link #FLUSH_INTERVAL_MS} after the first one arrived.
+ * Reads are not affected by the delay because recent events are served from the
+ * {@link GameEventService} buffer. On shutdown everything still queued is written.
+ *
+ * Ids come from game_event_seq in blocks of {@link GameEvent#ID_ALLOCATION}, the way Hibernate
+ * takes them (pooled-lo: a sequence value is the first id of its block), so a batch costs one
+ * sequence call per block instead of a generated-key round-trip per row. The id is taken
+ * when the event is queued, before it is buffered and pushed, so live events carry the same
+ * id as ones read back from the log; should that fail, the writer assigns it on insert.
+ *
+ * Metrics: codeconquer.events.queue (gauge), codeconquer.events.written / .dropped (counters).
+ */
+@Service
+public class GameEventWriter {
+
+    static final int BATCH_SIZE = 100;
+    static final long FLUSH_INTERVAL_MS = 200;
+    private static final long POLL_TIMEOUT_MS = 500;
+    private static final long RETRY_DELAY_MS = 1_000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO game_event (id, session_id, seq, type, message, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String NEXT_ID_BLOCK_SQL = "SELECT NEXT VALUE FOR game_event_seq";
+
+    private static final Logger log = LoggerFactory.getLogger(GameEventWriter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<GameEvent> queue = new LinkedBlockingQueue<>();
+    private final Counter written;
+    private final Counter dropped;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    // Current id block [nextId, idLimit); guarded by this.
+    private long nextId;
+    private long idLimit;
+
+    public GameEventWriter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        Gauge.builder("codeconquer.events.queue", queue, BlockingQueue::size)
+                .description("Game events waiting to be written")
+                .register(meterRegistry);
+        this.written = Counter.builder("codeconquer.events.written").register(meterRegistry);
+        this.dropped = Counter.builder("codeconquer.events.dropped").register(meterRegistry);
+    }
+
+    public void enqueue(GameEvent evt) {
+        if (evt == null) return;
+        if (evt.getId() == null) {
+            try {
+                evt.setId(reserveIds(1)[0]);
+            } catch (RuntimeException e) {
+                log.warn("Could not reserve a game event id, assigning it on write", e);
+            }
+        }
+        queue.add(evt);
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        worker = new Thread(this::run, "game-event-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stops the worker and writes whatever is still queued before the DataSource goes away.
+     */
+    @PreDestroy
+    void shutdown() {
+        // No interrupt: an interrupted JDBC write can close a file-backed H2 database.
+        // The worker notices the flag within one poll timeout.
+        running = false;
+        try {
+            worker.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<GameEvent> rest = new ArrayList<>();
+        while (queue.drainTo(rest, BATCH_SIZE) > 0) {
+            writeWithRetry(rest);
+            rest.clear();
+        }
+    }
+
+    private void run() {
+        List<GameEvent> batch = new ArrayList<>(BATCH_SIZE);
+        while (running) {
+            try {
+                GameEvent first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                // Collect until the batch is full or the flush interval is over.
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS);
+                while (batch.size() < BATCH_SIZE) {
+                    long waitNanos = deadline - System.nanoTime();
+                    if (waitNanos <= 0) break;
+                    GameEvent next = queue.poll(waitNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                    queue.drainTo(batch, BATCH_SIZE - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // Unexpected; stop here and leave the rest to shutdown().
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (batch.isEmpty()) continue;
+            writeWithRetry(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeWithRetry(List<GameEvent> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                // Ids stay on the events, so a retry reuses them: rows a partly applied batch
+                // already wrote then fail on the key instead of being duplicated.
+                assignMissingIds(batch);
+                jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        GameEvent evt = batch.get(i);
+                        ps.setLong(1, evt.getId());
+                        ps.setString(2, evt.getSessionId());
+                        ps.setLong(3, evt.getSeq());
+                        ps.setString(4, evt.getType());
+                        ps.setString(5, evt.getMessage());
+                        ps.setTimestamp(6, Timestamp.from(evt.getCreatedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                });
+                written.increment(batch.size());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= 2) {
+                    // The event feed is non-critical; never let a bad batch block the ones behind it.
+                    dropped.increment(batch.size());
+                    log.warn("Dropping {} game events after failed insert", batch.size(), e);
+                    return;
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private void assignMissingIds(List<GameEvent> batch) {
+        int missing = 0;
+        for (GameEvent evt : batch) {
+            if (evt.getId() == null) missing++;
+        }
+        if (missing == 0) return;
+        long[] ids = reserveIds(missing);
+        int next = 0;
+        for (GameEvent evt : batch) {
+            if (evt.getId() == null) evt.setId(ids[next++]);
+        }
+    }
+
+    private synchronized long[] reserveIds(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            if (nextId == idLimit) {
+                nextId = jdbcTemplate.queryForObject(NEXT_ID_BLOCK_SQL, Long.class);
+                idLimit = nextId + GameEvent.ID_ALLOCATION;
+            }
+            ids[i] = nextId++;
+        }
+        return ids;
+    }
+}
@@ -3,9 +3,6 @@ package com.codeconquer.server.service;
 import com.codeconquer.server.model.GameSession;
 import com.codeconquer.server.model.GameEvent;
 import com.codeconquer.server.model.Player;
-import com.codeconquer.server.repository.GameSessionRepository;
-import com.codeconquer.server.repository.GameEventRepository;
-import com.codeconquer.server.repository.PlayerRepository;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -15,9 +12,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 public class GameSessionService {
@@ -34,23 +29,54 @@ public class GameSessionService {
     // Landing on a SPECIAL board field requires resolving a drawn Special Card before the turn can advance.
     public static final String TURN_AWAITING_SPECIAL_CARD = "AWAITING_SPECIAL_CARD";
 
-    private final GameSessionRepository sessionRepository;
-    private final PlayerRepository playerRepository;
-    private final GameEventRepository gameEventRepository;
-    private final Random random = new Random();
-
-    public GameSessionService(GameSessionRepository sessionRepository,
-                              PlayerRepository playerRepository,
-                              GameEventRepository gameEventRepository) {
-        this.sessionRepository = sessionRepository;
-        this.playerRepository = playerRepository;
-        this.gameEventRepository = gameEventRepository;
+    private final GameStateStore stateStore;
+    private final GameEventWriter eventWriter;
+    private final GameEventService eventService;
+    private final GameEventStreamService eventStreamService;
+    private final GameEventLongPollService eventLongPollService;
+    private final SessionChangeTracker changeTracker;
+    private final SessionLocks sessionLocks;
+    private final OptimisticRetry optimisticRetry;
+    private final TurnOrderIndex turnOrderIndex;
+    private final BoardGraphService boardService;
+    private final SessionCodeAllocator codeAllocator;
+
+    public GameSessionService(GameStateStore stateStore,
+                              GameEventWriter eventWriter,
+                              GameEventService eventService,
+                              GameEventStreamService eventStreamService,
+                              GameEventLongPollService eventLongPollService,
+                              SessionChangeTracker changeTracker,
+                              SessionLocks sessionLocks,
+                              OptimisticRetry optimisticRetry,
+                              TurnOrderIndex turnOrderIndex,
+                              BoardGraphService boardService,
+                              SessionCodeAllocator codeAllocator) {
+        this.stateStore = stateStore;
+        this.eventWriter = eventWriter;
+        this.eventService = eventService;
+        this.eventStreamService = eventStreamService;
+        this.eventLongPollService = eventLongPollService;
+        this.changeTracker = changeTracker;
+        this.sessionLocks = sessionLocks;
+        this.optimisticRetry = optimisticRetry;
+        this.turnOrderIndex = turnOrderIndex;
+        this.boardService = boardService;
+        this.codeAllocator = codeAllocator;
     }
 
     public GameSession createNew() {
+        return createNew(null);
+    }
+
+    /**
+     * @param boardId board to play (see BoardGraphService); null for the default board
+     */
+    public GameSession createNew(String boardId) {
         GameSession s = new GameSession();
         s.setId(UUID.randomUUID().toString());
-        s.setCode(generateUniqueCode());
+        s.setCode(codeAllocator.next());
+        s.setBoardId(boardService.get(boardId).getId());
         s.setCreatedAt(Instant.now());
         s.setStarted(false);
         s.setStatus(SESSION_LOBBY);
@@ -66,45 +92,29 @@ public class GameSessionService {
         s.setLastEventType(null);
         s.setLastEventMessage(null);
         s.setLastEventAt(null);
-        return sessionRepository.save(s);
+        return stateStore.saveSession(s);
     }
 
     public Optional<GameSession> findById(String id) {
-        return sessionRepository.findById(id);
+        return stateStore.findSession(id);
     }
 
     public Optional<GameSession> findByCode(String code) {
-        return sessionRepository.findByCodeIgnoreCase(code);
+        return stateStore.findSessionByCode(code);
     }
 
     public GameSession save(GameSession s) {
-        return sessionRepository.save(s);
+        GameSession saved = stateStore.saveSession(s);
+        markChanged(saved.getId());
+        return saved;
     }
 
     /**
-     * Ensures players in a session have a clean sequential turnOrder (1..n).
-     * This prevents edge cases where turnOrder might be 0 or have gaps due to older data.
+     * Records that the session or one of its players was written, so push channels
+     * (lobby socket) pick it up. Call after the write, not before.
      */
-    public void normalizeTurnOrders(String sessionId) {
-        List<Player> players = playerRepository.findBySessionIdOrderByCreatedAtAsc(sessionId);
-        if (players.isEmpty()) return;
-
-        // Preserve the established order. In the lobby (before rolls are finalized)
-        // turnOrder is assigned incrementally; once rolls are applied, turnOrder is the
-        // authoritative sequence for the rest of the match.
-        players.sort(Comparator.comparingInt(Player::getTurnOrder));
-        int i = 1;
-        boolean changed = false;
-        for (Player p : players) {
-            if (p.getTurnOrder() != i) {
-                p.setTurnOrder(i);
-                changed = true;
-            }
-            i++;
-        }
-        if (changed) {
-            playerRepository.saveAll(players);
-        }
+    public void markChanged(String sessionId) {
+        changeTracker.markChanged(sessionId);
     }
 
     public void tryStartIfAllReady(String sessionId) {
@@ -115,7 +125,7 @@ public class GameSessionService {
         if (SESSION_FINISHED.equals(s.getStatus())) return;
         if (s.isStarted()) return;
 
-        List<Player> players = playerRepository.findBySessionIdOrderByCreatedAtAsc(sessionId);
+        List<Player> players = stateStore.findPlayers(sessionId);
         if (players.isEmpty()) return;
 
         // Lobby D20 requirement: everyone must have rolled, and there must be no ties.
@@ -137,12 +147,14 @@ public class GameSessionService {
         s.setLastDiceRoll(null);
         s.setPendingForkNodeId(null);
         s.setPendingRemainingSteps(null);
-        save(s);
 
+        TurnContext ctx = TurnContext.of(stateStore, turnOrderIndex, s);
+        ctx.sessionChanged();
         // If the first player is supposed to skip (e.g. jailed), handle it immediately.
-        advanceTurnConsideringSkips(sessionId);
+        advanceTurnConsideringSkips(ctx);
         // Announce whose turn it is (after auto-skips).
-        announceCurrentTurn(sessionId);
+        announceCurrentTurn(ctx);
+        flush(ctx);
     }
 
     private boolean allHaveLobbyRoll(List<Player> players) {
@@ -174,7 +186,7 @@ public class GameSessionService {
      */
     public void recomputeTurnOrderFromLobbyRoll(String sessionId, List<Player> players) {
         if (players == null) {
-            players = playerRepository.findBySessionIdOrderByCreatedAtAsc(sessionId);
+            players = stateStore.findPlayers(sessionId);
         }
         if (players.isEmpty()) return;
 
@@ -188,16 +200,21 @@ public class GameSessionService {
                         .thenComparing(Player::getId)
         );
 
-        boolean changed = false;
+        // Only rows whose order moved are written, as one batched UPDATE.
+        List<Player> changed = new ArrayList<>();
         int i = 1;
         for (Player p : sorted) {
             if (p.getTurnOrder() != i) {
                 p.setTurnOrder(i);
-                changed = true;
+                changed.add(p);
             }
             i++;
         }
-        if (changed) playerRepository.saveAll(sorted);
+        if (!changed.isEmpty()) {
+            stateStore.savePlayers(changed);
+            markChanged(sessionId);
+        }
+        turnOrderIndex.put(sessionId, sorted);
     }
 
     /**
@@ -205,18 +222,20 @@ public class GameSessionService {
      * Uses the actual list of players rather than numeric +1 with gaps.
      */
     public void advanceTurn(String sessionId) {
-        Optional<GameSession> opt = findById(sessionId);
-        if (opt.isEmpty()) return;
+        TurnContext.load(stateStore, turnOrderIndex, sessionId).ifPresent(ctx -> {
+            advanceTurn(ctx);
+            flush(ctx);
+        });
+    }
 
-        GameSession s = opt.get();
+    private void advanceTurn(TurnContext ctx) {
+        GameSession s = ctx.session;
         if (SESSION_FINISHED.equals(s.getStatus())) return;
         if (!s.isStarted()) return;
 
-        normalizeTurnOrders(sessionId);
-        List<Player> players = playerRepository.findBySessionIdOrderByCreatedAtAsc(sessionId);
-        if (players.isEmpty()) return;
+        int n = ctx.size();
+        if (n == 0) return;
 
-        int n = players.size();
         int current = s.getCurrentTurnOrder();
         if (current < 1 || current > n) current = 1;
 
@@ -229,10 +248,10 @@ public class GameSessionService {
         s.setLastDiceRoll(null);
         s.setPendingForkNodeId(null);
         s.setPendingRemainingSteps(null);
-        save(s);
+        ctx.sessionChanged();
 
-        advanceTurnConsideringSkips(sessionId);
-        announceCurrentTurn(sessionId);
+        advanceTurnConsideringSkips(ctx);
+        announceCurrentTurn(ctx);
     }
 
     /**
@@ -240,20 +259,19 @@ public class GameSessionService {
      * This keeps the game moving without needing an action from the skipped player.
      */
     public void advanceTurnConsideringSkips(String sessionId) {
-        Optional<GameSession> opt = findById(sessionId);
-        if (opt.isEmpty()) return;
+        TurnContext.load(stateStore, turnOrderIndex, sessionId).ifPresent(ctx -> {
+            advanceTurnConsideringSkips(ctx);
+            flush(ctx);
+        });
+    }
 
-        GameSession s = opt.get();
+    private void advanceTurnConsideringSkips(TurnContext ctx) {
+        GameSession s = ctx.session;
         if (SESSION_FINISHED.equals(s.getStatus())) return;
         if (!s.isStarted()) return;
 
-        normalizeTurnOrders(sessionId);
-        List<Player> players = playerRepository.findBySessionIdOrderByCreatedAtAsc(sessionId);
-        if (players.isEmpty()) return;
-
-        // Index by turnOrder for quick lookup.
-        Map<Integer, Player> byOrder = players.stream().collect(Collectors.toMap(Player::getTurnOrder, p -> p, (a, b) -> a));
-        int n = players.size();
+        int n = ctx.size();
+        if (n == 0) return;
         int safety = n;
 
         boolean skippedAny = false;
@@ -261,7 +279,7 @@ public class GameSessionService {
         while (safety-- > 0) {
             int curOrder = s.getCurrentTurnOrder();
             if (curOrder < 1 || curOrder > n) curOrder = 1;
-            Player cur = byOrder.get(curOrder);
+            Player cur = ctx.playerAt(curOrder);
             if (cur == null) break;
 
             if (cur.getSkipTurns() > 0) {
@@ -273,8 +291,8 @@ public class GameSessionService {
                     cur.setJailReturnNodeId(null);
                 }
                 cur.setSkipTurns(cur.getSkipTurns() - 1);
-                playerRepository.save(cur);
-                publishEvent(s, "TURN_SKIPPED", (cur.getIcon() == null || cur.getIcon().isBlank() ? "🙂" : cur.getIcon()) + " " + (cur.getName() == null || cur.getName().isBlank() ? "Player" : cur.getName()) + " setzt aus.");
+                ctx.playerChanged(cur);
+                recordEvent(ctx, "TURN_SKIPPED", (cur.getIcon() == null || cur.getIcon().isBlank() ? "🙂" : cur.getIcon()) + " " + (cur.getName() == null || cur.getName().isBlank() ? "Player" : cur.getName()) + " setzt aus.");
 
                 int next = curOrder + 1;
                 if (next > n) next = 1;
@@ -284,7 +302,6 @@ public class GameSessionService {
                 s.setLastDiceRoll(null);
                 s.setPendingForkNodeId(null);
                 s.setPendingRemainingSteps(null);
-                save(s);
                 continue;
             }
 
@@ -296,14 +313,14 @@ public class GameSessionService {
                     && !TURN_AWAITING_SPECIAL_CARD.equals(s.getTurnStatus())
                     && !TURN_IDLE.equals(s.getTurnStatus())) {
                 s.setTurnStatus(TURN_AWAITING_D6_ROLL);
-                save(s);
+                ctx.sessionChanged();
             }
             break;
         }
 
         if (skippedAny) {
             // After automatically skipping players, announce who is up next.
-            announceCurrentTurn(sessionId);
+            announceCurrentTurn(ctx);
         }
     }
 
@@ -311,87 +328,116 @@ public class GameSessionService {
      * Publishes a lightweight "next turn" event so all clients can show it in the event feed.
      */
     public void announceCurrentTurn(String sessionId) {
-        Optional<GameSession> opt = findById(sessionId);
-        if (opt.isEmpty()) return;
-        GameSession s = opt.get();
+        TurnContext.load(stateStore, turnOrderIndex, sessionId).ifPresent(ctx -> {
+            announceCurrentTurn(ctx);
+            flush(ctx);
+        });
+    }
+
+    private void announceCurrentTurn(TurnContext ctx) {
+        GameSession s = ctx.session;
         if (!s.isStarted()) return;
         if (SESSION_FINISHED.equals(s.getStatus())) return;
 
-        normalizeTurnOrders(sessionId);
-        List<Player> players = playerRepository.findBySessionIdOrderByCreatedAtAsc(sessionId);
-        if (players.isEmpty()) return;
-        Player current = players.stream().filter(p -> p.getTurnOrder() == s.getCurrentTurnOrder()).findFirst().orElse(null);
+        Player current = ctx.playerAt(s.getCurrentTurnOrder());
         if (current == null) return;
 
         String nm = (current.getName() == null || current.getName().isBlank()) ? "Player" : current.getName().trim();
         String ic = (current.getIcon() == null || current.getIcon().isBlank()) ? "🙂" : current.getIcon().trim();
-        publishEvent(s, "TURN_NEXT", "Nächster Zug: " + ic + " " + nm);
+        recordEvent(ctx, "TURN_NEXT", "Nächster Zug: " + ic + " " + nm);
     }
 
     /**
-     * Remove a player and keep turn state consistent.
+     * Keeps turn state consistent after a player was removed (and the players behind them
+     * moved up one, see PlayerService#removePlayer).
      *
      * If the leaving player was currently up, we unlock any in-progress phase and
-     * advance to the next available player.
+     * hand the turn to the player who moved into their place.
      */
     public void handlePlayerLeft(String sessionId, int leavingTurnOrder, String leavingName, String leavingIcon) {
-        Optional<GameSession> opt = findById(sessionId);
-        if (opt.isEmpty()) return;
+        TurnContext.load(stateStore, turnOrderIndex, sessionId).ifPresent(ctx -> {
+            handlePlayerLeft(ctx, leavingTurnOrder, formatLeftMessage(leavingName, leavingIcon));
+            flush(ctx);
+        });
+    }
 
-        GameSession s = opt.get();
+    private void handlePlayerLeft(TurnContext ctx, int leavingTurnOrder, String leftMessage) {
+        GameSession s = ctx.session;
         if (SESSION_FINISHED.equals(s.getStatus())) {
-            publishEvent(s, "PLAYER_LEFT", formatLeftMessage(leavingName, leavingIcon));
+            recordEvent(ctx, "PLAYER_LEFT", leftMessage);
             return;
         }
         if (!s.isStarted()) {
-            // Lobby phase: just keep orders clean.
-            normalizeTurnOrders(sessionId);
-            publishEvent(s, "PLAYER_LEFT", formatLeftMessage(leavingName, leavingIcon));
+            recordEvent(ctx, "PLAYER_LEFT", leftMessage);
             return;
         }
 
-        normalizeTurnOrders(sessionId);
-
-        if (leavingTurnOrder > 0 && leavingTurnOrder == s.getCurrentTurnOrder()) {
-            // Current player left mid-turn: unlock and move on.
+        int n = ctx.size();
+        int cur = s.getCurrentTurnOrder();
+        if (leavingTurnOrder > 0 && leavingTurnOrder == cur) {
+            // Current player left mid-turn: unlock, the next player already sits at this order.
+            if (cur > n) cur = 1;
+            s.setCurrentTurnOrder(cur);
             s.setTurnStatus(TURN_AWAITING_D6_ROLL);
             s.setActiveChallengeId(null);
             s.setLastDiceRoll(null);
             s.setPendingForkNodeId(null);
             s.setPendingRemainingSteps(null);
-            publishEvent(s, "PLAYER_LEFT", formatLeftMessage(leavingName, leavingIcon));
-            advanceTurn(sessionId);
+            recordEvent(ctx, "PLAYER_LEFT", leftMessage);
+            advanceTurnConsideringSkips(ctx);
+            announceCurrentTurn(ctx);
         } else {
-            // Not current: ensure currentTurnOrder still maps into 1..n after normalization.
-            List<Player> players = playerRepository.findBySessionIdOrderByCreatedAtAsc(sessionId);
-            int n = players.size();
+            // Not current: the current player moved up one if the leaving player was ahead of them.
             if (n <= 0) return;
-            int cur = s.getCurrentTurnOrder();
-            if (cur < 1 || cur > n) {
-                s.setCurrentTurnOrder(1);
-                publishEvent(s, "PLAYER_LEFT", formatLeftMessage(leavingName, leavingIcon));
-            } else {
-                publishEvent(s, "PLAYER_LEFT", formatLeftMessage(leavingName, leavingIcon));
-            }
+            if (leavingTurnOrder > 0 && leavingTurnOrder < cur) cur--;
+            if (cur < 1 || cur > n) cur = 1;
+            s.setCurrentTurnOrder(cur);
+            recordEvent(ctx, "PLAYER_LEFT", leftMessage);
         }
     }
 
+    /**
+     * Writes what a turn transition changed and reports it once.
+     */
+    private void flush(TurnContext ctx) {
+        if (ctx.flush()) markChanged(ctx.session.getId());
+    }
+
     public void publishEvent(GameSession s, String type, String message) {
         if (s == null) return;
+        recordEvent(s, type, message);
+        save(s);
+    }
+
+    private void recordEvent(TurnContext ctx, String type, String message) {
+        recordEvent(ctx.session, type, message);
+        ctx.sessionChanged();
+    }
+
+    /**
+     * Stamps the event on the session (the caller saves it) and schedules its delivery.
+     */
+    private void recordEvent(GameSession s, String type, String message) {
         long newSeq = s.getLastEventSeq() + 1;
         s.setLastEventSeq(newSeq);
         s.setLastEventType(type);
         s.setLastEventMessage(message);
         s.setLastEventAt(Instant.now());
-        save(s);
 
-        // Persist to the session event log for polling clients.
-        try {
-            GameEvent evt = new GameEvent(s.getId(), newSeq, type, message, s.getLastEventAt());
-            gameEventRepository.save(evt);
-        } catch (Exception ignored) {
-            // Event feed is non-critical; never break core game flow if logging fails.
-        }
+        // Once the action commits: queue for the (batched, asynchronous) event log, buffer it
+        // for polling clients, then push to open streams and wake up parked long-poll requests.
+        // A retried action (optimistic lock conflict) therefore never logs an event twice.
+        GameEvent evt = new GameEvent(s.getId(), newSeq, type, message, s.getLastEventAt());
+        AfterCommit.run(() -> {
+            try {
+                eventWriter.enqueue(evt);
+                eventService.record(evt);
+                eventStreamService.publish(evt);
+                eventLongPollService.notifyPublished(evt.getSessionId(), evt.getSeq());
+            } catch (Exception ignored) {
+                // Event feed is non-critical; never break core game flow if logging fails.
+            }
+        });
     }
 
     private String formatLeftMessage(String name, String icon) {
@@ -405,23 +451,33 @@ public class GameSessionService {
      * Only the current player may confirm.
      */
     public void confirmTurnHandover(String sessionId, String playerId) {
+        sessionLocks.run(sessionId, () -> optimisticRetry.run(() -> doConfirmTurnHandover(sessionId, playerId)));
+    }
+
+    private void doConfirmTurnHandover(String sessionId, String playerId) {
         if (sessionId == null || sessionId.isBlank()) throw new IllegalArgumentException("sessionId required");
         if (playerId == null || playerId.isBlank()) throw new IllegalArgumentException("playerId required");
 
-        GameSession s = findById(sessionId).orElseThrow(() -> new IllegalArgumentException("Session not found"));
+        // One read of the session and of the players involved, one write of what changed.
+        TurnContext ctx = TurnContext.load(stateStore, turnOrderIndex, sessionId)
+                .orElseThrow(() -> new IllegalArgumentException("Session not found"));
+        GameSession s = ctx.session;
         if (SESSION_FINISHED.equals(s.getStatus())) throw new IllegalArgumentException("Session finished");
         if (!s.isStarted()) throw new IllegalArgumentException("Session not started");
         if (!TURN_AWAITING_CONFIRM.equals(s.getTurnStatus())) throw new IllegalArgumentException("No handover pending");
 
-        normalizeTurnOrders(sessionId);
-        Player p = playerRepository.findById(playerId).orElseThrow(() -> new IllegalArgumentException("Player not found"));
-        if (p.getSessionId() == null || !p.getSessionId().equals(sessionId)) {
-            throw new IllegalArgumentException("Player not found for session");
+        Player current = ctx.playerAt(s.getCurrentTurnOrder());
+        if (current == null || !current.getId().equals(playerId)) {
+            Player p = stateStore.findPlayer(playerId).orElseThrow(() -> new IllegalArgumentException("Player not found"));
+            if (p.getSessionId() == null || !p.getSessionId().equals(sessionId)) {
+                throw new IllegalArgumentException("Player not found for session");
+            }
+            throw new IllegalArgumentException("Not your turn");
         }
-        if (p.getTurnOrder() != s.getCurrentTurnOrder()) throw new IllegalArgumentException("Not your turn");
 
         // Advance to next player and reset phase.
-        advanceTurn(sessionId);
+        advanceTurn(ctx);
+        flush(ctx);
     }
 
     /**
@@ -467,22 +523,10 @@ public class GameSessionService {
         s.setLastDiceRoll(null);
 
         // Publish a friendly win message.
-        Player winner = playerRepository.findById(winnerPlayerId).orElse(null);
+        Player winner = stateStore.findPlayer(winnerPlayerId).orElse(null);
         String icon = winner == null ? "🏁" : (winner.getIcon() == null || winner.getIcon().isBlank() ? "🙂" : winner.getIcon());
         String name = winner == null ? "Player" : (winner.getName() == null || winner.getName().isBlank() ? "Player" : winner.getName());
         publishEvent(s, "GAME_FINISHED", "🏁 " + icon + " " + name + " hat gewonnen!");
         save(s);
     }
-
-    private String generateUniqueCode() {
-        String chars = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
-        while (true) {
-            StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < 6; i++) {
-                sb.append(chars.charAt(random.nextInt(chars.length())));
-            }
-            String code = sb.toString();
-            if (sessionRepository.findByCodeIgnoreCase(code).isEmpty()) return code;
-        }
-    }
 }
@@ -0,0 +1,52 @@
+package com.codeconquer.server.service;
+
+import com.codeconquer.server.model.GameSession;
+import com.codeconquer.server.model.Player;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Access to sessions and their player rosters for the game services.
+ *
+ * Two implementations, selected by {@code codeconquer.engine.in-memory}:
+ *  - {@link JpaGameStateStore} (default): every call goes to the JPA repositories.
+ *  - {@link InMemoryGameStateStore}: active sessions live in memory and changes are
+ *    written behind through the same repositories.
+ *
+ * Returned lists are fresh copies and may be sorted or modified by the caller.
+ */
+public interface GameStateStore {
+
+    Optional<GameSession> findSession(String sessionId);
+
+    Optional<GameSession> findSessionByCode(String code);
+
+    GameSession saveSession(GameSession session);
+
+    Optional<Player> findPlayer(String playerId);
+
+    /**
+     * Roster of a session in join order (createdAt ascending).
+     */
+    List<Player> findPlayers(String sessionId);
+
+    Optional<Player> findPlayerByName(String sessionId, String name);
+
+    /**
+     * Highest turnOrder in the session, 0 if empty.
+     */
+    int maxTurnOrder(String sessionId);
+
+    Player savePlayer(Player player);
+
+    List<Player> savePlayers(List<Player> players);
+
+    void deletePlayer(Player player);
+
+    /**
+     * Validator for reads of the session and its roster ({@link StateTag}); changes with every
+     * write to either. Null if the session does not exist.
+     */
+    String stateTag(String sessionId);
+}
@@ -0,0 +1,293 @@
+package com.codeconquer.server.service;
+
+import com.codeconquer.server.dto.GlobalRankEntry;
+import com.codeconquer.server.dto.LeaderboardEntry;
+import com.codeconquer.server.model.ScoreAggregate;
+import com.codeconquer.server.repository.ScoreAggregateRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * All-time ranking of every player (of every session) by total points.
+ *
+ * Players sit in an order-statistic tree (a treap with subtree sizes) keyed by points
+ * descending, then by when they reached their total ({@link ScoreAggregate#getReachedScoreId()},
+ * so the order survives a restart). A player's position, the players above a total and the
+ * player at a position are all O(log n), however many players share a total. Built from the
+ * {@link ScoreAggregate} rows at startup and updated when a score commits ({@link #update}).
+ *
+ * Order: points descending, then who reached the total first. Players with equal points
+ * share a rank.
+ */
+@Service
+public class GlobalLeaderboard {
+
+    private static final Logger log = LoggerFactory.getLogger(GlobalLeaderboard.class);
+
+    private final ScoreAggregateRepository aggregateRepository;
+
+    // All fields guarded by this.
+    private final Map<String, Ranked> byPlayer = new HashMap<>();
+    private final RankTree tree = new RankTree();
+
+    public GlobalLeaderboard(ScoreAggregateRepository aggregateRepository) {
+        this.aggregateRepository = aggregateRepository;
+    }
+
+    @PostConstruct
+    void rebuild() {
+        List<ScoreAggregate> rows = aggregateRepository.findAll();
+        synchronized (this) {
+            byPlayer.clear();
+            tree.clear();
+            for (ScoreAggregate a : rows) {
+                long reached = a.getReachedScoreId() == null ? 0 : a.getReachedScoreId();
+                put(a.getPlayerId(), a.getPlayerName(), a.getSessionId(), a.getTotalPoints(), reached);
+            }
+        }
+        log.info("Global leaderboard built from {} players", rows.size());
+    }
+
+    /**
+     * A player's totals changed with the score {@code scoreId}; applied once the surrounding
+     * transaction commits.
+     */
+    public void update(String sessionId, LeaderboardEntry entry, long scoreId) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                put(entry.getPlayerId(), entry.getPlayerName(), sessionId, entry.getTotalPoints(), scoreId);
+            }
+        });
+    }
+
+    public synchronized List<GlobalRankEntry> top(int limit) {
+        return list(0, limit);
+    }
+
+    /**
+     * The player's entry, or null if they never scored.
+     */
+    public synchronized GlobalRankEntry rank(String playerId) {
+        Ranked r = byPlayer.get(playerId);
+        return r == null ? null : new GlobalRankEntry(tree.countAbove(r.total) + 1, playerId, r.name, r.sessionId, r.total);
+    }
+
+    /**
+     * Up to {@code radius} players on either side of the player (and the player), or an
+     * empty list if they never scored.
+     */
+    public synchronized List<GlobalRankEntry> around(String playerId, int radius) {
+        Ranked r = byPlayer.get(playerId);
+        if (r == null) return List.of();
+        long position = tree.position(r.total, r.reached, playerId);
+        long from = Math.max(0, position - radius);
+        return list(from, (int) Math.min(Integer.MAX_VALUE, position + radius + 1 - from));
+    }
+
+    // --- internals (called with the monitor held) ---
+
+    private void put(String playerId, String name, String sessionId, long total, long reached) {
+        if (playerId == null) return;
+        Ranked old = byPlayer.get(playerId);
+        if (old != null) {
+            if (old.total == total) {
+                // Same total: keep the place among equals.
+                byPlayer.put(playerId, new Ranked(name, sessionId, total, old.reached));
+                return;
+            }
+            tree.remove(old.total, old.reached, playerId);
+        }
+        byPlayer.put(playerId, new Ranked(name, sessionId, total, reached));
+        tree.insert(total, reached, playerId);
+    }
+
+    /**
+     * Players from position {@code from} (0 = best) on, at most {@code limit} of them.
+     */
+    private List<GlobalRankEntry> list(long from, int limit) {
+        List<GlobalRankEntry> out = new ArrayList<>(Math.min(Math.max(limit, 0), 256));
+        if (limit <= 0) return out;
+
+        long rank = 0;
+        long rankTotal = 0;
+        for (long position = from; position < tree.size() && out.size() < limit; position++) {
+            String playerId = tree.playerAt(position);
+            Ranked r = byPlayer.get(playerId);
+            if (rank == 0 || r.total != rankTotal) {
+                rank = tree.countAbove(r.total) + 1;
+                rankTotal = r.total;
+            }
+            out.add(new GlobalRankEntry(rank, playerId, r.name, r.sessionId, r.total));
+        }
+        return out;
+    }
+
+    private record Ranked(String name, String sessionId, long total, long reached) {}
+
+    /**
+     * Treap of (total desc, reached asc, playerId) with subtree sizes. Expected depth O(log n).
+     */
+    private static final class RankTree {
+
+        private Node root;
+
+        void clear() {
+            root = null;
+        }
+
+        long size() {
+            return size(root);
+        }
+
+        void insert(long total, long reached, String playerId) {
+            root = insert(root, new Node(total, reached, playerId));
+        }
+
+        void remove(long total, long reached, String playerId) {
+            root = remove(root, total, reached, playerId);
+        }
+
+        /**
+         * Players with more points than {@code total}.
+         */
+        long countAbove(long total) {
+            long count = 0;
+            for (Node n = root; n != null; ) {
+                if (n.total > total) {
+                    count += size(n.left) + 1;
+                    n = n.right;
+                } else {
+                    n = n.left;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Position (0 = best) of the given key, which must be in the tree.
+         */
+        long position(long total, long reached, String playerId) {
+            long count = 0;
+            for (Node n = root; n != null; ) {
+                int c = compare(total, reached, playerId, n);
+                if (c == 0) return count + size(n.left);
+                if (c < 0) {
+                    n = n.left;
+                } else {
+                    count += size(n.left) + 1;
+                    n = n.right;
+                }
+            }
+            throw new IllegalStateException("player missing from the ranking");
+        }
+
+        String playerAt(long position) {
+            Node n = root;
+            while (n != null) {
+                long left = size(n.left);
+                if (position < left) {
+                    n = n.left;
+                } else if (position == left) {
+                    return n.playerId;
+                } else {
+                    position -= left + 1;
+                    n = n.right;
+                }
+            }
+            throw new IndexOutOfBoundsException("position " + position);
+        }
+
+        private static Node insert(Node t, Node n) {
+            if (t == null) return n;
+            if (n.priority > t.priority) {
+                Node[] parts = split(t, n);
+                n.left = parts[0];
+                n.right = parts[1];
+                return n.update();
+            }
+            if (compare(n.total, n.reached, n.playerId, t) < 0) {
+                t.left = insert(t.left, n);
+            } else {
+                t.right = insert(t.right, n);
+            }
+            return t.update();
+        }
+
+        private static Node remove(Node t, long total, long reached, String playerId) {
+            if (t == null) return null;
+            int c = compare(total, reached, playerId, t);
+            if (c == 0) return merge(t.left, t.right);
+            if (c < 0) {
+                t.left = remove(t.left, total, reached, playerId);
+            } else {
+                t.right = remove(t.right, total, reached, playerId);
+            }
+            return t.update();
+        }
+
+        /**
+         * Splits into the nodes before {@code key} and the rest.
+         */
+        private static Node[] split(Node t, Node key) {
+            if (t == null) return new Node[2];
+            if (compare(t.total, t.reached, t.playerId, key) < 0) {
+                Node[] parts = split(t.right, key);
+                t.right = parts[0];
+                return new Node[]{t.update(), parts[1]};
+            }
+            Node[] parts = split(t.left, key);
+            t.left = parts[1];
+            return new Node[]{parts[0], t.update()};
+        }
+
+        private static Node merge(Node a, Node b) {
+            if (a == null) return b;
+            if (b == null) return a;
+            if (a.priority > b.priority) {
+                a.right = merge(a.right, b);
+                return a.update();
+            }
+            b.left = merge(a, b.left);
+            return b.update();
+        }
+
+        private static int compare(long total, long reached, String playerId, Node n) {
+            if (total != n.total) return total > n.total ? -1 : 1;
+            if (reached != n.reached) return reached < n.reached ? -1 : 1;
+            return playerId.compareTo(n.playerId);
+        }
+
+        private static long size(Node n) {
+            return n == null ? 0 : n.size;
+        }
+
+        private static final class Node {
+            final long total;
+            final long reached;
+            final String playerId;
+            final int priority = ThreadLocalRandom.current().nextInt();
+            Node left;
+            Node right;
+            long size = 1;
+
+            Node(long total, long reached, String playerId) {
+                this.total = total;
+                this.reached = reached;
+                this.playerId = playerId;
+            }
+
+            Node update() {
+                size = 1 + RankTree.size(left) + RankTree.size(right);
+                return this;
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.codeconquer.server.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the responses of mutating game actions by {@code Idempotency-Key}, so a request
+ * repeated by a flaky connection gets the original answer instead of rolling again.
+ *
+ * The lookup and the action run under the session lock: a retry that arrives while the
+ * original is still running waits for it and then finds its response. Only completed
+ * actions are remembered; one that threw or was refused with 423 (not allowed right now) is
+ * run again on retry. Keys are scoped to the session, the player and the action, and remember
+ * the request parameters: the same key with different parameters is answered with 422.
+ * Per session the last {@link #MAX_KEYS_PER_SESSION} responses are
+ * kept for {@link #RETAIN_MS}, for at most {@link #MAX_SESSIONS} sessions.
+ *
+ * The responses live in this instance's memory only: with several instances, a retry that
+ * is routed to another one than the original runs the action again.
+ */
+@Component
+public class IdempotencyCache {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    static final int MAX_SESSIONS = 1024;
+    static final int MAX_KEYS_PER_SESSION = 32;
+    static final long RETAIN_MS = 10 * 60 * 1000L;
+
+    private final SessionLocks sessionLocks;
+
+    private final Map<String, Map<String, Stored>> bySession = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Map<String, Stored>> eldest) {
+                    return size() > MAX_SESSIONS;
+                }
+            });
+
+    public IdempotencyCache(SessionLocks sessionLocks) {
+        this.sessionLocks = sessionLocks;
+    }
+
+    /**
+     * Runs the action, or returns its earlier response for the same session, player, action
+     * and key. Without a key the action simply runs.
+     *
+     * @param params the request parameters that identify the action (besides session and
+     *               player); compared by {@code equals} when the key is reused
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> call(String sessionId, String playerId, String action, String key,
+                                      List<?> params, Supplier<ResponseEntity<T>> supplier) {
+        if (key == null || key.isBlank() || sessionId == null) return supplier.get();
+        String scopedKey = playerId + ":" + action + ":" + key;
+        return sessionLocks.call(sessionId, () -> {
+            Map<String, Stored> responses = bySession.computeIfAbsent(sessionId, k -> new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Stored> eldest) {
+                    return size() > MAX_KEYS_PER_SESSION;
+                }
+            });
+            Stored stored = responses.get(scopedKey);
+            long now = now();
+            if (stored != null && now - stored.at <= RETAIN_MS) {
+                if (!stored.params.equals(params)) return ResponseEntity.unprocessableEntity().build();
+                return (ResponseEntity<T>) stored.response;
+            }
+
+            ResponseEntity<T> response = supplier.get();
+            if (response.getStatusCode().isSameCodeAs(HttpStatus.LOCKED)) {
+                responses.remove(scopedKey);
+            } else {
+                responses.put(scopedKey, new Stored(response, params, now));
+            }
+            return response;
+        });
+    }
+
+    // Overridden by tests.
+    long now() {
+        return System.currentTimeMillis();
+    }
+
+    private record Stored(ResponseEntity<?> response, List<?> params, long at) {}
+}
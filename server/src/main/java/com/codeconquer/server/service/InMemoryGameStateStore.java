@@ -0,0 +1,377 @@
+package com.codeconquer.server.service;
+
+import com.codeconquer.server.model.GameSession;
+import com.codeconquer.server.model.Player;
+import com.codeconquer.server.repository.GameSessionRepository;
+import com.codeconquer.server.repository.PlayerRepository;
+import com.codeconquer.server.repository.RowVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Authoritative in-memory engine for active sessions ({@code codeconquer.engine.in-memory=true}).
+ *
+ * A session and its roster are loaded once and then served from memory; actions of the
+ * session (holding its {@link SessionLocks} lock) mutate the same instances and report them
+ * via save*, which only marks them dirty. Readers outside an action get copies taken under
+ * the session lock, so they never see a half-applied action. A scheduled flush writes dirty
+ * sessions/players (and deletions) through the JPA repositories, so the several saves of one
+ * action end up as one write per entity. Idle sessions are dropped from memory once
+ * everything is written; {@link #shutdown()} flushes the rest.
+ */
+@Service
+@ConditionalOnProperty(name = "codeconquer.engine.in-memory", havingValue = "true")
+public class InMemoryGameStateStore implements GameStateStore {
+
+    /** Sessions untouched this long are evicted (after their last flush). */
+    static final long IDLE_EVICT_MS = 30 * 60 * 1000L;
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryGameStateStore.class);
+
+    private final GameSessionRepository sessionRepository;
+    private final PlayerRepository playerRepository;
+    private final SessionLocks sessionLocks;
+    private final Counter flushConflicts;
+
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+    private final Map<String, String> sessionIdByPlayerId = new ConcurrentHashMap<>();
+    private final Map<String, String> sessionIdByCode = new ConcurrentHashMap<>();
+
+    public InMemoryGameStateStore(GameSessionRepository sessionRepository,
+                                  PlayerRepository playerRepository,
+                                  SessionLocks sessionLocks,
+                                  MeterRegistry meterRegistry) {
+        this.sessionRepository = sessionRepository;
+        this.playerRepository = playerRepository;
+        this.sessionLocks = sessionLocks;
+        this.flushConflicts = Counter.builder("codeconquer.engine.flush.conflicts").register(meterRegistry);
+    }
+
+    @Override
+    public Optional<GameSession> findSession(String sessionId) {
+        SessionState st = load(sessionId);
+        if (st == null) return Optional.empty();
+        return Optional.of(read(sessionId, st, s -> s.session, s -> SessionCache.copy(s.session)));
+    }
+
+    @Override
+    public Optional<GameSession> findSessionByCode(String code) {
+        if (code == null) return Optional.empty();
+        String normalized = code.toUpperCase(Locale.ROOT);
+        String id = sessionIdByCode.get(normalized);
+        if (id == null) {
+            id = sessionRepository.findByCode(normalized).map(GameSession::getId).orElse(null);
+        }
+        return id == null ? Optional.empty() : findSession(id);
+    }
+
+    @Override
+    public GameSession saveSession(GameSession session) {
+        while (true) {
+            SessionState st = load(session.getId());
+            if (st == null) {
+                // Brand-new session (not in the database yet).
+                st = sessions.putIfAbsent(session.getId(), new SessionState(session));
+                if (st == null) continue;
+            }
+            synchronized (st) {
+                if (st.evicted) continue;
+                st.session = session;
+                st.sessionDirty = true;
+                st.changes++;
+                st.touch();
+            }
+            if (session.getCode() != null) sessionIdByCode.put(session.getCode().toUpperCase(Locale.ROOT), session.getId());
+            return session;
+        }
+    }
+
+    @Override
+    public Optional<Player> findPlayer(String playerId) {
+        if (playerId == null) return Optional.empty();
+        String sessionId = sessionIdByPlayerId.get(playerId);
+        if (sessionId == null) {
+            sessionId = playerRepository.findById(playerId).map(Player::getSessionId).orElse(null);
+        }
+        SessionState st = load(sessionId);
+        if (st == null) return Optional.empty();
+        return Optional.ofNullable(read(sessionId, st, s -> s.players.get(playerId), s -> {
+            Player p = s.players.get(playerId);
+            return p == null ? null : SessionCache.copy(p);
+        }));
+    }
+
+    @Override
+    public List<Player> findPlayers(String sessionId) {
+        SessionState st = load(sessionId);
+        if (st == null) return new ArrayList<>();
+        return read(sessionId, st, s -> new ArrayList<>(s.players.values()), s -> {
+            List<Player> out = new ArrayList<>(s.players.size());
+            for (Player p : s.players.values()) out.add(SessionCache.copy(p));
+            return out;
+        });
+    }
+
+    @Override
+    public Optional<Player> findPlayerByName(String sessionId, String name) {
+        if (name == null) return Optional.empty();
+        for (Player p : findPlayers(sessionId)) {
+            if (name.equalsIgnoreCase(p.getName())) return Optional.of(p);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public int maxTurnOrder(String sessionId) {
+        int max = 0;
+        for (Player p : findPlayers(sessionId)) max = Math.max(max, p.getTurnOrder());
+        return max;
+    }
+
+    @Override
+    public Player savePlayer(Player player) {
+        while (true) {
+            SessionState st = load(player.getSessionId());
+            if (st == null) throw new IllegalArgumentException("session not found");
+            synchronized (st) {
+                if (st.evicted) continue;
+                st.players.put(player.getId(), player);
+                st.deletedPlayerIds.remove(player.getId());
+                st.dirtyPlayerIds.add(player.getId());
+                st.changes++;
+                st.touch();
+            }
+            sessionIdByPlayerId.put(player.getId(), player.getSessionId());
+            return player;
+        }
+    }
+
+    @Override
+    public List<Player> savePlayers(List<Player> players) {
+        for (Player p : players) savePlayer(p);
+        return players;
+    }
+
+    @Override
+    public void deletePlayer(Player player) {
+        while (true) {
+            SessionState st = load(player.getSessionId());
+            if (st == null) return;
+            synchronized (st) {
+                if (st.evicted) continue;
+                st.players.remove(player.getId());
+                st.dirtyPlayerIds.remove(player.getId());
+                st.deletedPlayerIds.add(player.getId());
+                st.changes++;
+                st.touch();
+            }
+            sessionIdByPlayerId.remove(player.getId());
+            return;
+        }
+    }
+
+    /**
+     * Versions only move on flush, so the tag also counts the writes since the state was
+     * loaded. A reload starts that count over, but by then every write has moved a version.
+     */
+    @Override
+    public String stateTag(String sessionId) {
+        SessionState st = load(sessionId);
+        if (st == null) return null;
+        Function<SessionState, String> tag = s -> {
+            List<RowVersion> roster = new ArrayList<>(s.players.size());
+            for (Player p : s.players.values()) roster.add(new RowVersion(p.getId(), p.getVersion()));
+            return StateTag.of(s.session.getVersion(), roster, s.changes);
+        };
+        return read(sessionId, st, tag, tag);
+    }
+
+    @Scheduled(fixedDelay = 250)
+    public void flush() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, SessionState> e : sessions.entrySet()) {
+            SessionState st = e.getValue();
+            // Write only between actions so a flush never persists a half-applied action;
+            // a busy session is simply picked up by the next round.
+            if (!sessionLocks.tryRun(e.getKey(), () -> flush(st))) continue;
+            synchronized (st) {
+                if (st.isClean() && now - st.lastAccess > IDLE_EVICT_MS) evict(e.getKey(), st);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Map.Entry<String, SessionState> e : sessions.entrySet()) {
+            sessionLocks.run(e.getKey(), () -> flush(e.getValue()));
+        }
+    }
+
+    /**
+     * Inside an action of the session the live state is returned; otherwise a copy taken
+     * under the session lock.
+     */
+    private <T> T read(String sessionId, SessionState st,
+                       Function<SessionState, T> live, Function<SessionState, T> copy) {
+        if (sessionLocks.isHeldByCurrentThread(sessionId)) return readLocked(st, live);
+        return sessionLocks.call(sessionId, () -> readLocked(st, copy));
+    }
+
+    private static <T> T readLocked(SessionState st, Function<SessionState, T> get) {
+        synchronized (st) {
+            st.touch();
+            return get.apply(st);
+        }
+    }
+
+    /**
+     * Session + roster of an active session, loading both from the database on first use.
+     */
+    private SessionState load(String sessionId) {
+        if (sessionId == null) return null;
+        SessionState st = sessions.get(sessionId);
+        if (st != null) return st;
+
+        Optional<GameSession> s = sessionRepository.findById(sessionId);
+        if (s.isEmpty()) return null;
+        SessionState loaded = new SessionState(s.get());
+        for (Player p : playerRepository.findBySessionIdOrderByCreatedAtAsc(sessionId)) {
+            loaded.players.put(p.getId(), p);
+        }
+
+        SessionState existing = sessions.putIfAbsent(sessionId, loaded);
+        if (existing != null) return existing;
+        for (String playerId : loaded.players.keySet()) sessionIdByPlayerId.put(playerId, sessionId);
+        if (loaded.session.getCode() != null) {
+            sessionIdByCode.put(loaded.session.getCode().toUpperCase(Locale.ROOT), sessionId);
+        }
+        return loaded;
+    }
+
+    private void flush(SessionState st) {
+        GameSession session;
+        List<Player> dirty = new ArrayList<>();
+        List<String> deleted;
+        synchronized (st) {
+            if (st.isClean()) return;
+            session = st.sessionDirty ? st.session : null;
+            for (String id : st.dirtyPlayerIds) {
+                Player p = st.players.get(id);
+                if (p != null) dirty.add(p);
+            }
+            deleted = new ArrayList<>(st.deletedPlayerIds);
+            st.sessionDirty = false;
+            st.dirtyPlayerIds.clear();
+            st.deletedPlayerIds.clear();
+        }
+
+        try {
+            // Merge returns copies; carry the new @Version over to the in-memory instances.
+            if (session != null) session.setVersion(sessionRepository.save(session).getVersion());
+            if (!dirty.isEmpty()) {
+                List<Player> saved = playerRepository.saveAll(dirty);
+                for (int i = 0; i < dirty.size(); i++) dirty.get(i).setVersion(saved.get(i).getVersion());
+            }
+            if (!deleted.isEmpty()) playerRepository.deleteAllById(deleted);
+        } catch (OptimisticLockingFailureException ex) {
+            // Someone else (another instance) changed the rows. These changes were already
+            // acknowledged to the clients, so memory wins: take over the current row versions
+            // and write them again on the next flush.
+            flushConflicts.increment();
+            log.warn("Write-behind of session {} conflicted with a change in the database, will overwrite it",
+                    st.session.getId(), ex);
+            requeue(st, session, dirty, deleted);
+            try {
+                adoptVersions(session, dirty);
+            } catch (RuntimeException reloadEx) {
+                log.warn("Could not reload versions of session {}, will retry", st.session.getId(), reloadEx);
+            }
+        } catch (RuntimeException ex) {
+            // Keep the changes and try again on the next flush.
+            requeue(st, session, dirty, deleted);
+            log.warn("Write-behind of session {} failed, will retry", st.session.getId(), ex);
+        }
+    }
+
+    private static void requeue(SessionState st, GameSession session, List<Player> dirty, List<String> deleted) {
+        synchronized (st) {
+            if (session != null) st.sessionDirty = true;
+            for (Player p : dirty) st.dirtyPlayerIds.add(p.getId());
+            for (String id : deleted) {
+                if (!st.players.containsKey(id)) st.deletedPlayerIds.add(id);
+            }
+        }
+    }
+
+    /**
+     * Sets the versions the rows have in the database now (null for a row that is gone, so it
+     * is inserted again). Runs under the session lock, like the flush itself.
+     */
+    private void adoptVersions(GameSession session, List<Player> dirty) {
+        if (session != null) {
+            session.setVersion(sessionRepository.findById(session.getId()).map(GameSession::getVersion).orElse(null));
+        }
+        if (dirty.isEmpty()) return;
+        Map<String, Long> versions = new HashMap<>();
+        for (Player p : playerRepository.findAllById(dirty.stream().map(Player::getId).toList())) {
+            versions.put(p.getId(), p.getVersion());
+        }
+        for (Player p : dirty) p.setVersion(versions.get(p.getId()));
+    }
+
+    /**
+     * Called with the state locked; writers that still hold it reload a fresh copy.
+     */
+    private void evict(String sessionId, SessionState st) {
+        if (!sessions.remove(sessionId, st)) return;
+        st.evicted = true;
+        for (String playerId : st.players.keySet()) sessionIdByPlayerId.remove(playerId, sessionId);
+        if (st.session.getCode() != null) {
+            sessionIdByCode.remove(st.session.getCode().toUpperCase(Locale.ROOT), sessionId);
+        }
+    }
+
+    private static final class SessionState {
+        GameSession session;
+        // Join order, like findBySessionIdOrderByCreatedAtAsc.
+        final Map<String, Player> players = new LinkedHashMap<>();
+        final Set<String> dirtyPlayerIds = new HashSet<>();
+        final Set<String> deletedPlayerIds = new HashSet<>();
+        boolean sessionDirty;
+        boolean evicted;
+        // Writes since loaded; see stateTag.
+        long changes;
+        long lastAccess = System.currentTimeMillis();
+
+        SessionState(GameSession session) {
+            this.session = session;
+        }
+
+        void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+
+        boolean isClean() {
+            return !sessionDirty && dirtyPlayerIds.isEmpty() && deletedPlayerIds.isEmpty();
+        }
+    }
+}
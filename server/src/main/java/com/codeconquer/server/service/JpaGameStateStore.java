@@ -0,0 +1,143 @@
+package com.codeconquer.server.service;
+
+import com.codeconquer.server.model.GameSession;
+import com.codeconquer.server.model.Player;
+import com.codeconquer.server.repository.GameSessionRepository;
+import com.codeconquer.server.repository.PlayerRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Default store: reads and writes go straight to the database.
+ *
+ * Reads outside a transaction (polling, lobby and state views) are served through
+ * {@link SessionCache}, whose hits are checked against the row versions in the database, so
+ * writes by other instances are seen too. Game actions run in a transaction and read through the persistence
+ * context, which already returns the same instance for repeated lookups within the action
+ * and hands out managed rows that can be saved without a merge; writes invalidate the cache.
+ */
+@Service
+@ConditionalOnProperty(name = "codeconquer.engine.in-memory", havingValue = "false", matchIfMissing = true)
+public class JpaGameStateStore implements GameStateStore {
+
+    private final GameSessionRepository sessionRepository;
+    private final PlayerRepository playerRepository;
+    private final SessionCache cache;
+
+    public JpaGameStateStore(GameSessionRepository sessionRepository, PlayerRepository playerRepository,
+                             SessionCache cache) {
+        this.sessionRepository = sessionRepository;
+        this.playerRepository = playerRepository;
+        this.cache = cache;
+    }
+
+    @Override
+    public Optional<GameSession> findSession(String sessionId) {
+        if (sessionId == null) return Optional.empty();
+        if (inTransaction()) return sessionRepository.findById(sessionId);
+
+        GameSession cached = cache.getSession(sessionId,
+                () -> sessionRepository.findVersionById(sessionId).orElse(null));
+        if (cached != null) return Optional.of(cached);
+        long generation = cache.generation(sessionId);
+        Optional<GameSession> s = sessionRepository.findById(sessionId);
+        s.ifPresent(found -> cache.putSession(found, generation));
+        return s;
+    }
+
+    @Override
+    public Optional<GameSession> findSessionByCode(String code) {
+        if (code == null) return Optional.empty();
+        String normalized = code.toUpperCase(Locale.ROOT);
+        if (inTransaction()) return sessionRepository.findByCode(normalized);
+
+        String id = cache.getSessionIdByCode(normalized);
+        if (id != null) return findSession(id);
+        Optional<GameSession> s = sessionRepository.findByCode(normalized);
+        // Only the code is remembered: without a generation taken beforehand, the row itself
+        // may already be outdated. The next lookup fills the session entry.
+        s.ifPresent(found -> cache.putSessionCode(normalized, found.getId()));
+        return s;
+    }
+
+    @Override
+    public GameSession saveSession(GameSession session) {
+        cache.invalidateSession(session.getId());
+        GameSession saved = sessionRepository.save(session);
+        // Detached instance (no surrounding transaction): merge returned a copy; keep the
+        // caller's instance on the new @Version so its next save is not a false conflict.
+        if (saved != session) session.setVersion(saved.getVersion());
+        return saved;
+    }
+
+    @Override
+    public Optional<Player> findPlayer(String playerId) {
+        if (playerId == null) return Optional.empty();
+        return playerRepository.findById(playerId);
+    }
+
+    @Override
+    public List<Player> findPlayers(String sessionId) {
+        if (sessionId == null || inTransaction()) return playerRepository.findBySessionIdOrderByCreatedAtAsc(sessionId);
+
+        List<Player> cached = cache.getRoster(sessionId, () -> playerRepository.findVersionsBySessionId(sessionId));
+        if (cached != null) return cached;
+        long generation = cache.generation(sessionId);
+        List<Player> players = playerRepository.findBySessionIdOrderByCreatedAtAsc(sessionId);
+        cache.putRoster(sessionId, players, generation);
+        return players;
+    }
+
+    @Override
+    public Optional<Player> findPlayerByName(String sessionId, String name) {
+        if (name == null) return Optional.empty();
+        return playerRepository.findBySessionIdAndNameKey(sessionId, Player.nameKeyOf(name));
+    }
+
+    @Override
+    public int maxTurnOrder(String sessionId) {
+        return playerRepository.getMaxTurnOrder(sessionId);
+    }
+
+    @Override
+    public Player savePlayer(Player player) {
+        cache.invalidateRoster(player.getSessionId());
+        Player saved = playerRepository.save(player);
+        if (saved != player) player.setVersion(saved.getVersion());
+        return saved;
+    }
+
+    @Override
+    public List<Player> savePlayers(List<Player> players) {
+        for (Player p : players) cache.invalidateRoster(p.getSessionId());
+        List<Player> saved = playerRepository.saveAll(players);
+        for (int i = 0; i < players.size(); i++) {
+            if (saved.get(i) != players.get(i)) players.get(i).setVersion(saved.get(i).getVersion());
+        }
+        return saved;
+    }
+
+    @Override
+    public void deletePlayer(Player player) {
+        cache.invalidateRoster(player.getSessionId());
+        playerRepository.delete(player);
+    }
+
+    @Override
+    public String stateTag(String sessionId) {
+        if (sessionId == null) return null;
+        // Two index lookups of versions only; no entity is loaded.
+        Optional<Long> version = sessionRepository.findVersionById(sessionId);
+        if (version.isEmpty()) return null;
+        return StateTag.of(version.get(), playerRepository.findVersionsBySessionId(sessionId), 0);
+    }
+
+    private static boolean inTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive();
+    }
+}
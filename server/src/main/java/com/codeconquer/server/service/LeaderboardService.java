@@ -2,25 +2,27 @@ package com.codeconquer.server.service;
 
 import com.codeconquer.server.dto.PlayerLeaderboardEntry;
 import com.codeconquer.server.model.Player;
-import com.codeconquer.server.repository.PlayerRepository;
 import org.springframework.stereotype.Service;
 
+import java.util.Comparator;
 import java.util.List;
 
 @Service
 public class LeaderboardService {
 
-    private final PlayerRepository playerRepository;
+    private final GameStateStore stateStore;
 
-    public LeaderboardService(PlayerRepository playerRepository) {
-        this.playerRepository = playerRepository;
+    public LeaderboardService(GameStateStore stateStore) {
+        this.stateStore = stateStore;
     }
 
     /**
      * Leaderboard is based on each player's running total score within the session.
      */
     public List<PlayerLeaderboardEntry> getLeaderboardForSession(String sessionId) {
-        List<Player> players = playerRepository.findBySessionIdOrderByTotalScoreDescCreatedAtAsc(sessionId);
+        // Rosters are small; sort the join-ordered roster (stable -> createdAt breaks ties).
+        List<Player> players = stateStore.findPlayers(sessionId);
+        players.sort(Comparator.comparingInt(Player::getTotalScore).reversed());
         return players.stream()
                 .map(p -> new PlayerLeaderboardEntry(p.getId(), p.getName(), p.getIcon(), p.getTotalScore()))
                 .toList();
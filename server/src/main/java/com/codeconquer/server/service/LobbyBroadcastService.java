@@ -0,0 +1,210 @@
+package com.codeconquer.server.service;
+
+import com.codeconquer.server.dto.LobbyState;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Fans out lobby state changes to subscribed sockets as deltas.
+ *
+ * Writes only mark a session as changed ({@link SessionChangeTracker}); a short scheduled
+ * flush then rebuilds the state once per changed session and sends the difference to the
+ * previous broadcast. Several saves within one action therefore produce a single delta.
+ *
+ * Messages:
+ *  - {"type":"snapshot","rev":n,"state":{...LobbyState}}  (on connect)
+ *  - {"type":"delta","rev":n,"changes":{...},"players":[{id,...changed}],
+ *     "removedPlayerIds":[...],"playerOrder":[...]}
+ * Clients that see a rev gap should reconnect to get a fresh snapshot.
+ */
+@Service
+public class LobbyBroadcastService {
+
+    private static final String PLAYERS = "players";
+    private static final String ID = "id";
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final LobbyStateService lobbyStateService;
+    private final SessionChangeTracker changeTracker;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+
+    public LobbyBroadcastService(LobbyStateService lobbyStateService,
+                                 SessionChangeTracker changeTracker,
+                                 ObjectMapper objectMapper) {
+        this.lobbyStateService = lobbyStateService;
+        this.changeTracker = changeTracker;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Registers a socket and sends it the current state as snapshot.
+     * Returns false if the session does not exist.
+     */
+    public boolean subscribe(String sessionId, WebSocketSession socket) throws IOException {
+        while (true) {
+            Channel ch = channels.computeIfAbsent(sessionId, k -> new Channel());
+            synchronized (ch) {
+                if (ch.closed) continue;
+                Map<String, Object> state = buildSnapshot(sessionId);
+                if (state == null) {
+                    if (ch.sockets.isEmpty()) close(sessionId, ch);
+                    return false;
+                }
+                // Bring existing subscribers up to date first so they share the new baseline.
+                if (ch.snapshot != null) broadcastDelta(sessionId, ch, ch.snapshot, state);
+                // All of them were gone: the channel is closed, start over on a new one.
+                if (ch.closed) continue;
+                ch.snapshot = state;
+                ch.sockets.add(socket);
+
+                Map<String, Object> msg = new LinkedHashMap<>();
+                msg.put("type", "snapshot");
+                msg.put("rev", ch.rev);
+                msg.put("state", state);
+                send(socket, objectMapper.writeValueAsString(msg));
+                return true;
+            }
+        }
+    }
+
+    public void unsubscribe(String sessionId, WebSocketSession socket) {
+        Channel ch = channels.get(sessionId);
+        if (ch == null) return;
+        synchronized (ch) {
+            ch.sockets.remove(socket);
+            if (ch.sockets.isEmpty()) close(sessionId, ch);
+        }
+    }
+
+    @Scheduled(fixedDelay = 100)
+    public void flush() {
+        for (String sessionId : changeTracker.drainDirty()) {
+            Channel ch = channels.get(sessionId);
+            if (ch == null) continue;
+            synchronized (ch) {
+                if (ch.closed) continue;
+                Map<String, Object> state = buildSnapshot(sessionId);
+                if (state == null) continue;
+                broadcastDelta(sessionId, ch, ch.snapshot, state);
+                ch.snapshot = state;
+            }
+        }
+    }
+
+    private void close(String sessionId, Channel ch) {
+        ch.closed = true;
+        channels.remove(sessionId, ch);
+    }
+
+    private Map<String, Object> buildSnapshot(String sessionId) {
+        Optional<LobbyState> state = lobbyStateService.build(sessionId);
+        return state.map(s -> objectMapper.convertValue(s, MAP_TYPE)).orElse(null);
+    }
+
+    /**
+     * Sends the changes to every socket; dropping the last dead one closes the channel.
+     */
+    private void broadcastDelta(String sessionId, Channel ch, Map<String, Object> prev, Map<String, Object> next) {
+        Map<String, Object> delta = diff(prev == null ? Map.of() : prev, next);
+        if (delta.isEmpty()) return;
+
+        ch.rev++;
+        Map<String, Object> msg = new LinkedHashMap<>();
+        msg.put("type", "delta");
+        msg.put("rev", ch.rev);
+        msg.putAll(delta);
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(msg);
+        } catch (IOException e) {
+            return;
+        }
+        for (WebSocketSession socket : ch.sockets) {
+            if (!send(socket, json)) ch.sockets.remove(socket);
+        }
+        if (ch.sockets.isEmpty()) close(sessionId, ch);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> diff(Map<String, Object> prev, Map<String, Object> next) {
+        Map<String, Object> out = new LinkedHashMap<>();
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> e : next.entrySet()) {
+            if (PLAYERS.equals(e.getKey())) continue;
+            if (!prev.containsKey(e.getKey()) || !Objects.equals(prev.get(e.getKey()), e.getValue())) {
+                changes.put(e.getKey(), e.getValue());
+            }
+        }
+        if (!changes.isEmpty()) out.put("changes", changes);
+
+        List<Map<String, Object>> prevPlayers = (List<Map<String, Object>>) prev.getOrDefault(PLAYERS, List.of());
+        List<Map<String, Object>> nextPlayers = (List<Map<String, Object>>) next.getOrDefault(PLAYERS, List.of());
+
+        Map<Object, Map<String, Object>> prevById = new HashMap<>();
+        List<Object> prevOrder = new ArrayList<>();
+        for (Map<String, Object> p : prevPlayers) {
+            prevById.put(p.get(ID), p);
+            prevOrder.add(p.get(ID));
+        }
+
+        List<Map<String, Object>> changedPlayers = new ArrayList<>();
+        List<Object> nextOrder = new ArrayList<>();
+        for (Map<String, Object> p : nextPlayers) {
+            Object id = p.get(ID);
+            nextOrder.add(id);
+            Map<String, Object> old = prevById.remove(id);
+            if (old == null) {
+                changedPlayers.add(p);
+                continue;
+            }
+            Map<String, Object> fields = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> e : p.entrySet()) {
+                if (!Objects.equals(old.get(e.getKey()), e.getValue())) fields.put(e.getKey(), e.getValue());
+            }
+            if (!fields.isEmpty()) {
+                fields.put(ID, id);
+                changedPlayers.add(fields);
+            }
+        }
+        if (!changedPlayers.isEmpty()) out.put(PLAYERS, changedPlayers);
+        if (!prevById.isEmpty()) out.put("removedPlayerIds", new ArrayList<>(prevById.keySet()));
+        if (!nextOrder.equals(prevOrder)) out.put("playerOrder", nextOrder);
+        return out;
+    }
+
+    private boolean send(WebSocketSession socket, String json) {
+        if (!socket.isOpen()) return false;
+        try {
+            socket.sendMessage(new TextMessage(json));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            return false;
+        }
+    }
+
+    private static class Channel {
+        final List<WebSocketSession> sockets = new CopyOnWriteArrayList<>();
+        // Last state every subscriber has; deltas are computed against it.
+        Map<String, Object> snapshot;
+        long rev;
+        boolean closed;
+    }
+}
@@ -0,0 +1,104 @@
+package com.codeconquer.server.service;
+
+import com.codeconquer.server.board.BoardGraph;
+import com.codeconquer.server.board.CompiledBoard;
+import com.codeconquer.server.dto.ForkOption;
+import com.codeconquer.server.dto.LobbyPlayer;
+import com.codeconquer.server.dto.LobbyState;
+import com.codeconquer.server.model.GameSession;
+import com.codeconquer.server.model.Player;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Builds the {@link LobbyState} view shared by the lobby poll endpoint and the lobby socket.
+ */
+@Service
+public class LobbyStateService {
+
+    private final GameSessionService sessionService;
+    private final PlayerService playerService;
+    private final BoardGraphService boardGraphService;
+
+    public LobbyStateService(GameSessionService sessionService, PlayerService playerService, BoardGraphService boardGraphService) {
+        this.sessionService = sessionService;
+        this.playerService = playerService;
+        this.boardGraphService = boardGraphService;
+    }
+
+    public Optional<LobbyState> build(String sessionId) {
+        Optional<GameSession> opt = sessionService.findById(sessionId);
+        if (opt.isEmpty()) return Optional.empty();
+
+        GameSession s = opt.get();
+        List<Player> players = playerService.listPlayers(sessionId);
+        players.sort(Comparator.comparingInt(Player::getTurnOrder));
+
+        // Compute ties for lobbyRoll display/controls
+        List<String> tiedIds = sessionService.computeTiedPlayerIds(players);
+
+        String currentPlayerId = null;
+        if (s.isStarted() && s.getCurrentTurnOrder() > 0) {
+            for (Player p : players) {
+                if (p.getTurnOrder() == s.getCurrentTurnOrder()) {
+                    currentPlayerId = p.getId();
+                    break;
+                }
+            }
+        }
+
+        CompiledBoard compiled = boardGraphService.forSession(s);
+        BoardGraph board = compiled.getGraph();
+        List<LobbyPlayer> lobbyPlayers = players.stream()
+                .map(p -> new LobbyPlayer(
+                        p.getId(),
+                        p.getName(),
+                        p.getIcon(),
+                        p.isReady(),
+                        p.getTurnOrder(),
+                        p.getLobbyRoll(),
+                        tiedIds.contains(p.getId()),
+                        p.getPositionNodeId(),
+                        positionType(board, p.getPositionNodeId())
+                ))
+                .toList();
+
+        // If we're waiting at a fork, expose the available outgoing options so the UI can render buttons even after refresh.
+        List<ForkOption> pendingForkOptions = List.of();
+        if (GameSessionService.TURN_AWAITING_PATH_CHOICE.equals(s.getTurnStatus()) && s.getPendingForkNodeId() != null) {
+            try {
+                pendingForkOptions = compiled.getForkOptions(s.getPendingForkNodeId());
+            } catch (Exception ignored) {
+                pendingForkOptions = List.of();
+            }
+        }
+
+        return Optional.of(new LobbyState(
+                s.getId(),
+                s.getCode(),
+                s.getStatus(),
+                s.getWinnerPlayerId(),
+                s.isStarted(),
+                s.isTurnOrderLocked(),
+                s.getCurrentTurnOrder(),
+                currentPlayerId,
+                s.getTurnStatus(),
+                s.getLastDiceRoll(),
+                s.getPendingForkNodeId(),
+                s.getPendingRemainingSteps(),
+                pendingForkOptions,
+                lobbyPlayers,
+                s.getLastEventSeq(),
+                s.getLastEventType(),
+                s.getLastEventMessage()
+        ));
+    }
+
+    private static String positionType(BoardGraph board, String nodeId) {
+        int node = board.indexOf(nodeId);
+        return node < 0 ? null : board.typeOf(node).name();
+    }
+}
@@ -0,0 +1,68 @@
+package com.codeconquer.server.service;
+
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a game action in one transaction and re-runs it when a {@code @Version} check fails.
+ *
+ * The transaction makes an attempt all-or-nothing: a conflict rolls back every save of the
+ * attempt (and clears the request's EntityManager), so the retry starts from fresh state.
+ * Side effects that must not repeat (event log, pushes, change marks) are deferred until
+ * commit by their owners. Backoff is short and bounded; after the last attempt the
+ * exception propagates.
+ */
+@Component
+public class OptimisticRetry {
+
+    static final int MAX_ATTEMPTS = 4;
+    static final long BASE_BACKOFF_MS = 10;
+    static final long MAX_BACKOFF_MS = 200;
+
+    private final TransactionTemplate tx;
+
+    public OptimisticRetry(PlatformTransactionManager transactionManager) {
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    public <T> T call(Supplier<T> action) {
+        // Nested action (e.g. saveScore -> addToTotalScore): the outermost call owns the
+        // transaction and the retry; retrying inside a rollback-only transaction is pointless.
+        if (TransactionSynchronizationManager.isActualTransactionActive()) return action.get();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return tx.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= MAX_ATTEMPTS) throw e;
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void run(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    static void backoff(int attempt) {
+        long cap = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << (attempt - 1));
+        // Full jitter so two conflicting writers do not retry in lockstep.
+        long sleep = ThreadLocalRandom.current().nextLong(cap + 1);
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying", ie);
+        }
+    }
+}
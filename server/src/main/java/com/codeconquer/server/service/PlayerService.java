@@ -2,10 +2,10 @@ package com.codeconquer.server.service;
 
 import com.codeconquer.server.model.GameSession;
 import com.codeconquer.server.model.Player;
-import com.codeconquer.server.repository.PlayerRepository;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
@@ -14,18 +14,32 @@ import java.util.UUID;
 @Service
 public class PlayerService {
 
-    private final PlayerRepository playerRepository;
+    private final GameStateStore stateStore;
     private final GameSessionService sessionService;
     private final BoardGraphService boardGraphService;
+    private final SessionLocks sessionLocks;
+    private final OptimisticRetry optimisticRetry;
+    private final TurnOrderIndex turnOrderIndex;
     private final Random random = new Random();
 
-    public PlayerService(PlayerRepository playerRepository, GameSessionService sessionService, BoardGraphService boardGraphService) {
-        this.playerRepository = playerRepository;
+    public PlayerService(GameStateStore stateStore, GameSessionService sessionService, BoardGraphService boardGraphService,
+                         SessionLocks sessionLocks,
+                         OptimisticRetry optimisticRetry,
+                         TurnOrderIndex turnOrderIndex) {
+        this.stateStore = stateStore;
         this.sessionService = sessionService;
         this.boardGraphService = boardGraphService;
+        this.sessionLocks = sessionLocks;
+        this.optimisticRetry = optimisticRetry;
+        this.turnOrderIndex = turnOrderIndex;
     }
 
     public Player registerPlayer(String sessionId, String name, String icon) {
+        // Locked: the name check and the next turnOrder must not race with another join.
+        return sessionLocks.call(sessionId, () -> optimisticRetry.call(() -> doRegisterPlayer(sessionId, name, icon)));
+    }
+
+    private Player doRegisterPlayer(String sessionId, String name, String icon) {
         if (sessionId == null || sessionId.isBlank()) throw new IllegalArgumentException("sessionId required");
         if (name == null || name.isBlank()) throw new IllegalArgumentException("name required");
 
@@ -33,17 +47,18 @@ public class PlayerService {
         if (session.isEmpty()) throw new IllegalArgumentException("session not found");
 
         String trimmed = name.trim();
+        String startNodeId = boardGraphService.forSession(session.get()).getStartNodeId();
 
-        Optional<Player> existing = playerRepository.findBySessionIdAndNameIgnoreCase(sessionId, trimmed);
+        Optional<Player> existing = stateStore.findPlayerByName(sessionId, trimmed);
         if (existing.isPresent()) {
             // Optionally update icon if provided
             Player p = existing.get();
             if (icon != null && !icon.isBlank()) p.setIcon(icon.trim());
             // Phase 2A: ensure board state is initialized for legacy rows
             if (p.getPositionNodeId() == null || p.getPositionNodeId().isBlank()) {
-                p.setPositionNodeId(boardGraphService.getStartNodeId());
+                p.setPositionNodeId(startNodeId);
             }
-            return playerRepository.save(p);
+            return saveAndMark(p);
         }
 
         Player p = new Player();
@@ -55,22 +70,25 @@ public class PlayerService {
         p.setTotalScore(0);
         p.setLobbyRoll(null);
         // Phase 2A: board position init
-        p.setPositionNodeId(boardGraphService.getStartNodeId());
+        p.setPositionNodeId(startNodeId);
         p.setSkipTurns(0);
 
-        int nextOrder = playerRepository.getMaxTurnOrder(sessionId) + 1;
+        // Turn orders are dense (1..n), so a new player simply goes last.
+        int nextOrder = stateStore.maxTurnOrder(sessionId) + 1;
         p.setTurnOrder(nextOrder);
 
         p.setCreatedAt(Instant.now());
-        return playerRepository.save(p);
+        Player saved = saveAndMark(p);
+        turnOrderIndex.append(sessionId, saved);
+        return saved;
     }
 
     public List<Player> listPlayers(String sessionId) {
-        return playerRepository.findBySessionIdOrderByCreatedAtAsc(sessionId);
+        return stateStore.findPlayers(sessionId);
     }
 
     public Optional<Player> findById(String playerId) {
-        return playerRepository.findById(playerId);
+        return stateStore.findPlayer(playerId);
     }
 
     /**
@@ -78,11 +96,15 @@ public class PlayerService {
      * Keeps repository access centralized.
      */
     public Player save(Player p) {
-        return playerRepository.save(p);
+        return saveAndMark(p);
     }
 
     public Player setReady(String sessionId, String playerId, boolean ready) {
-        Player p = playerRepository.findById(playerId).orElseThrow(() -> new IllegalArgumentException("player not found"));
+        return sessionLocks.call(sessionId, () -> optimisticRetry.call(() -> doSetReady(sessionId, playerId, ready)));
+    }
+
+    private Player doSetReady(String sessionId, String playerId, boolean ready) {
+        Player p = stateStore.findPlayer(playerId).orElseThrow(() -> new IllegalArgumentException("player not found"));
         if (p.getSessionId() == null || !p.getSessionId().equals(sessionId)) throw new IllegalArgumentException("player not in session");
 
         // Phase 1: Must roll a lobby D20 before being allowed to ready up.
@@ -90,7 +112,7 @@ public class PlayerService {
             if (p.getLobbyRoll() == null) {
                 throw new IllegalStateException("Du musst zuerst den D20 für die Zugreihenfolge würfeln.");
             }
-            List<Player> players = playerRepository.findBySessionIdOrderByCreatedAtAsc(sessionId);
+            List<Player> players = stateStore.findPlayers(sessionId);
             List<String> tied = sessionService.computeTiedPlayerIds(players);
             if (tied.contains(p.getId())) {
                 throw new IllegalStateException("Tie beim D20! Bitte würfle erneut, bevor du Ready drückst.");
@@ -98,7 +120,7 @@ public class PlayerService {
         }
 
         p.setReady(ready);
-        Player saved = playerRepository.save(p);
+        Player saved = saveAndMark(p);
         sessionService.tryStartIfAllReady(sessionId);
         return saved;
     }
@@ -107,6 +129,10 @@ public class PlayerService {
      * Rolls a D20 for lobby turn order. Players may re-roll only if they are in a tie.
      */
     public int rollLobbyD20(String sessionId, String playerId) {
+        return sessionLocks.call(sessionId, () -> optimisticRetry.call(() -> doRollLobbyD20(sessionId, playerId)));
+    }
+
+    private int doRollLobbyD20(String sessionId, String playerId) {
         if (sessionId == null || sessionId.isBlank()) throw new IllegalArgumentException("sessionId required");
         if (playerId == null || playerId.isBlank()) throw new IllegalArgumentException("playerId required");
 
@@ -115,10 +141,10 @@ public class PlayerService {
             throw new IllegalStateException("Turn order ist bereits fixiert.");
         }
 
-        Player p = playerRepository.findById(playerId).orElseThrow(() -> new IllegalArgumentException("player not found"));
+        Player p = stateStore.findPlayer(playerId).orElseThrow(() -> new IllegalArgumentException("player not found"));
         if (p.getSessionId() == null || !p.getSessionId().equals(sessionId)) throw new IllegalArgumentException("player not in session");
 
-        List<Player> players = playerRepository.findBySessionIdOrderByCreatedAtAsc(sessionId);
+        List<Player> players = stateStore.findPlayers(sessionId);
         List<String> tied = sessionService.computeTiedPlayerIds(players);
 
         boolean canRoll = (p.getLobbyRoll() == null) || tied.contains(p.getId());
@@ -132,20 +158,23 @@ public class PlayerService {
         // with their old value (and no longer be considered tied).
         Integer previousRoll = p.getLobbyRoll();
         if (previousRoll != null && tied.contains(p.getId())) {
+            // Only the tie group is written; with JDBC batching that is one batched UPDATE.
+            List<Player> group = new ArrayList<>();
             for (Player other : players) {
                 if (other.getLobbyRoll() != null && other.getLobbyRoll().equals(previousRoll)) {
                     other.setLobbyRoll(null);
                     other.setReady(false);
+                    group.add(other);
                 }
             }
-            playerRepository.saveAll(players);
+            stateStore.savePlayers(group);
         }
 
         int roll = random.nextInt(20) + 1;
         p.setLobbyRoll(roll);
         // Reset ready if player re-rolls (keeps flow consistent)
         p.setReady(false);
-        playerRepository.save(p);
+        stateStore.savePlayer(p);
 
         // Log the roll for the mini event feed.
         try {
@@ -155,10 +184,11 @@ public class PlayerService {
         } catch (Exception ignored) {}
 
         // Refresh rolls list and finalize turn order if possible (all rolled + no ties)
-        List<Player> updated = playerRepository.findBySessionIdOrderByCreatedAtAsc(sessionId);
+        List<Player> updated = stateStore.findPlayers(sessionId);
         if (updated.stream().allMatch(pl -> pl.getLobbyRoll() != null) && sessionService.computeTiedPlayerIds(updated).isEmpty()) {
             sessionService.recomputeTurnOrderFromLobbyRoll(sessionId, updated);
         }
+        sessionService.markChanged(sessionId);
         return roll;
     }
 
@@ -166,17 +196,25 @@ public class PlayerService {
      * Adds points to a player's running total score for this session.
      */
     public Player addToTotalScore(String sessionId, String playerId, int deltaPoints) {
-        Player p = playerRepository.findById(playerId).orElseThrow(() -> new IllegalArgumentException("player not found"));
+        return sessionLocks.call(sessionId, () -> optimisticRetry.call(() -> doAddToTotalScore(sessionId, playerId, deltaPoints)));
+    }
+
+    private Player doAddToTotalScore(String sessionId, String playerId, int deltaPoints) {
+        Player p = stateStore.findPlayer(playerId).orElseThrow(() -> new IllegalArgumentException("player not found"));
         if (p.getSessionId() == null || !p.getSessionId().equals(sessionId)) {
             throw new IllegalArgumentException("player not in session");
         }
         int next = p.getTotalScore() + Math.max(0, deltaPoints);
         p.setTotalScore(next);
-        return playerRepository.save(p);
+        return saveAndMark(p);
     }
 
     public void removePlayer(String sessionId, String playerId) {
-        Player p = playerRepository.findById(playerId)
+        sessionLocks.run(sessionId, () -> optimisticRetry.run(() -> doRemovePlayer(sessionId, playerId)));
+    }
+
+    private void doRemovePlayer(String sessionId, String playerId) {
+        Player p = stateStore.findPlayer(playerId)
                 .orElseThrow(() -> new IllegalArgumentException("player not found"));
         if (p.getSessionId() == null || !p.getSessionId().equals(sessionId)) {
             throw new IllegalArgumentException("player not in session");
@@ -184,7 +222,26 @@ public class PlayerService {
         int leavingOrder = p.getTurnOrder();
         String leavingName = p.getName();
         String leavingIcon = p.getIcon();
-        playerRepository.delete(p);
+        stateStore.deletePlayer(p);
+
+        // Keep turn orders dense (1..n): everyone behind the leaving player moves up one.
+        List<Player> behind = new ArrayList<>();
+        for (Player other : stateStore.findPlayers(sessionId)) {
+            if (other.getTurnOrder() > leavingOrder) {
+                other.setTurnOrder(other.getTurnOrder() - 1);
+                behind.add(other);
+            }
+        }
+        if (!behind.isEmpty()) stateStore.savePlayers(behind);
+        turnOrderIndex.remove(sessionId, p.getId());
+
         sessionService.handlePlayerLeft(sessionId, leavingOrder, leavingName, leavingIcon);
+        sessionService.markChanged(sessionId);
+    }
+
+    private Player saveAndMark(Player p) {
+        Player saved = stateStore.savePlayer(p);
+        sessionService.markChanged(saved.getSessionId());
+        return saved;
     }
 }
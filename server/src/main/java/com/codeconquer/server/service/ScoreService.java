@@ -4,28 +4,87 @@ import com.codeconquer.server.model.GameSession;
 import com.codeconquer.server.model.Player;
 import com.codeconquer.server.model.Score;
 import com.codeconquer.server.repository.ScoreRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.Instant;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class ScoreService {
 
+    /** Largest page {@link #getScoresAfter} returns. */
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final ScoreRepository scoreRepository;
     private final GameSessionService sessionService;
     private final PlayerService playerService;
+    private final SessionLocks sessionLocks;
+    private final OptimisticRetry optimisticRetry;
+    private final SessionScoreboard scoreboard;
+    private final GlobalLeaderboard globalLeaderboard;
+    // The export stream needs an open connection; nothing in it is written.
+    private final TransactionTemplate readOnlyTx;
+    private final EntityManager entityManager;
+    private final JsonMapper jsonMapper;
 
     public ScoreService(ScoreRepository scoreRepository,
                         GameSessionService sessionService,
-                        PlayerService playerService) {
+                        PlayerService playerService,
+                        SessionLocks sessionLocks,
+                        OptimisticRetry optimisticRetry,
+                        SessionScoreboard scoreboard,
+                        GlobalLeaderboard globalLeaderboard,
+                        PlatformTransactionManager transactionManager,
+                        EntityManager entityManager,
+                        JsonMapper jsonMapper) {
         this.scoreRepository = scoreRepository;
         this.sessionService = sessionService;
         this.playerService = playerService;
+        this.sessionLocks = sessionLocks;
+        this.optimisticRetry = optimisticRetry;
+        this.scoreboard = scoreboard;
+        this.globalLeaderboard = globalLeaderboard;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.entityManager = entityManager;
+        this.jsonMapper = jsonMapper;
     }
 
     public Score saveScore(Score score) {
         if (score == null) throw new IllegalArgumentException("Score required");
+        return sessionLocks.call(score.getSessionId(), () -> optimisticRetry.call(() -> doSaveScore(submitted(score))));
+    }
+
+    /**
+     * A fresh entity per attempt, holding only the client's fields: an attempt that rolls back
+     * leaves its generated id (and server-set fields) behind on its own copy, so the retry
+     * inserts instead of merging a row that was never written.
+     */
+    private static Score submitted(Score in) {
+        Score score = new Score();
+        score.setSessionId(in.getSessionId());
+        score.setSessionCode(in.getSessionCode());
+        score.setChallengeId(in.getChallengeId());
+        score.setPlayerId(in.getPlayerId());
+        score.setCategory(in.getCategory());
+        score.setDifficulty(in.getDifficulty());
+        score.setPoints(in.getPoints());
+        score.setTimeMs(in.getTimeMs());
+        score.setErrors(in.getErrors());
+        return score;
+    }
+
+    private Score doSaveScore(Score score) {
         if (score.getSessionId() == null || score.getSessionId().isBlank()) throw new IllegalArgumentException("SessionId required");
         if (score.getPlayerId() == null || score.getPlayerId().isBlank()) throw new IllegalArgumentException("PlayerId required");
 
@@ -70,6 +129,7 @@ public class ScoreService {
         }
 
         Score saved = scoreRepository.save(score);
+        globalLeaderboard.update(saved.getSessionId(), scoreboard.record(saved), saved.getId());
 
         String nmPre = (p.getName() == null || p.getName().isBlank()) ? "Player" : p.getName().trim();
         String icPre = (p.getIcon() == null || p.getIcon().isBlank()) ? "🙂" : p.getIcon().trim();
@@ -112,8 +172,35 @@ public class ScoreService {
         return saved;
     }
 
-    public List<Score> getAllScores() {
-        return scoreRepository.findAll();
+    /**
+     * Scores with an id above {@code afterId}, in id order; pass the last id of a page to get
+     * the next one. {@code limit} is clamped to 1..{@link #MAX_PAGE_SIZE}.
+     */
+    public List<Score> getScoresAfter(long afterId, int limit) {
+        int size = Math.max(1, Math.min(MAX_PAGE_SIZE, limit));
+        return scoreRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, size));
+    }
+
+    /**
+     * Writes every score as NDJSON (one JSON object per line, id order) to {@code out}.
+     * Rows are streamed from the database and detached once written, so memory use does not
+     * grow with the number of scores.
+     */
+    public void exportAll(OutputStream out) {
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<Score> scores = scoreRepository.streamAllByOrderByIdAsc()) {
+                Iterator<Score> it = scores.iterator();
+                while (it.hasNext()) {
+                    Score score = it.next();
+                    out.write(jsonMapper.writeValueAsBytes(score));
+                    out.write('\n');
+                    entityManager.detach(score);
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
     }
 
     public List<Score> getTopScores() {
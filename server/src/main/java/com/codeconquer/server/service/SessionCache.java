@@ -0,0 +1,252 @@
+package com.codeconquer.server.service;
+
+import com.codeconquer.server.model.GameSession;
+import com.codeconquer.server.model.Player;
+import com.codeconquer.server.repository.RowVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.BeanUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of sessions (by id and code) and their rosters for {@link JpaGameStateStore}.
+ *
+ * Entries hold private copies; every hit returns fresh copies, so callers may modify what
+ * they get like they would a freshly loaded entity. Writes through the store invalidate the
+ * affected entries right away and again once the transaction commits. A fill that raced with
+ * a write is dropped: loaders take a {@link #generation} before reading the database and the
+ * entry is only stored if no invalidation of that session happened in between.
+ *
+ * Invalidation only sees writes through this process, so a hit is also checked against the
+ * row {@code @Version}s in the database (a version-only probe, no entity is loaded); an entry
+ * another instance has written past is dropped and counted as stale.
+ *
+ * Bounded by size (least recently used first) and idle time.
+ */
+@Component
+public class SessionCache {
+
+    /** Sessions (and rosters) kept; least recently used ones are dropped first. */
+    static final int MAX_SESSIONS = 1024;
+
+    /** Entries untouched this long are dropped. */
+    static final long IDLE_EVICT_MS = 10 * 60 * 1000L;
+
+    private static final int STRIPES = 64;
+
+    private final Map<String, Entry<GameSession>> sessions = lru(MAX_SESSIONS);
+    private final Map<String, Entry<List<Player>>> rosters = lru(MAX_SESSIONS);
+    // Codes never change; this map only needs to be bounded.
+    private final Map<String, String> sessionIdByCode = lru(MAX_SESSIONS);
+    // Invalidation counters, striped by session id.
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    private final Counter sessionHits;
+    private final Counter sessionMisses;
+    private final Counter sessionStale;
+    private final Counter rosterHits;
+    private final Counter rosterMisses;
+    private final Counter rosterStale;
+
+    public SessionCache(MeterRegistry meterRegistry) {
+        this.sessionHits = counter(meterRegistry, "session", "hit");
+        this.sessionMisses = counter(meterRegistry, "session", "miss");
+        this.sessionStale = counter(meterRegistry, "session", "stale");
+        this.rosterHits = counter(meterRegistry, "roster", "hit");
+        this.rosterMisses = counter(meterRegistry, "roster", "miss");
+        this.rosterStale = counter(meterRegistry, "roster", "stale");
+        Gauge.builder("codeconquer.state.cache.size", sessions, Map::size).tag("cache", "session").register(meterRegistry);
+        Gauge.builder("codeconquer.state.cache.size", rosters, Map::size).tag("cache", "roster").register(meterRegistry);
+    }
+
+    /**
+     * Take before loading from the database; pass to the put* call afterwards.
+     */
+    long generation(String sessionId) {
+        return generations.get(stripe(sessionId));
+    }
+
+    /**
+     * A copy of the cached session, or null on a miss or if {@code currentVersion} (the row's
+     * version in the database, null if it is gone) differs from the cached one.
+     */
+    GameSession getSession(String sessionId, Supplier<Long> currentVersion) {
+        Entry<GameSession> e = sessions.get(sessionId);
+        if (e == null || e.isIdle()) {
+            sessionMisses.increment();
+            return null;
+        }
+        if (!Objects.equals(e.value.getVersion(), currentVersion.get())) {
+            sessions.remove(sessionId, e);
+            sessionStale.increment();
+            return null;
+        }
+        sessionHits.increment();
+        e.touch();
+        return copy(e.value);
+    }
+
+    void putSession(GameSession session, long generation) {
+        Entry<GameSession> e = new Entry<>(copy(session));
+        synchronized (sessions) {
+            if (generation(session.getId()) == generation) sessions.put(session.getId(), e);
+        }
+        if (session.getCode() != null) sessionIdByCode.put(session.getCode(), session.getId());
+    }
+
+    void putSessionCode(String code, String sessionId) {
+        sessionIdByCode.put(code, sessionId);
+    }
+
+    /**
+     * Id of the session with this (upper-case) code, or null if not cached.
+     */
+    String getSessionIdByCode(String code) {
+        return sessionIdByCode.get(code);
+    }
+
+    /**
+     * Copies of the cached roster in join order, or null on a miss or if {@code current} (the
+     * players' ids and versions in the database) does not match the cached players.
+     */
+    List<Player> getRoster(String sessionId, Supplier<List<RowVersion>> current) {
+        Entry<List<Player>> e = rosters.get(sessionId);
+        if (e == null || e.isIdle()) {
+            rosterMisses.increment();
+            return null;
+        }
+        if (!sameVersions(e.value, current.get())) {
+            rosters.remove(sessionId, e);
+            rosterStale.increment();
+            return null;
+        }
+        rosterHits.increment();
+        e.touch();
+        List<Player> out = new ArrayList<>(e.value.size());
+        for (Player p : e.value) out.add(copy(p));
+        return out;
+    }
+
+    void putRoster(String sessionId, List<Player> players, long generation) {
+        List<Player> copies = new ArrayList<>(players.size());
+        for (Player p : players) copies.add(copy(p));
+        Entry<List<Player>> e = new Entry<>(copies);
+        synchronized (sessions) {
+            if (generation(sessionId) == generation) rosters.put(sessionId, e);
+        }
+    }
+
+    /**
+     * The session row changed (or is about to).
+     */
+    void invalidateSession(String sessionId) {
+        if (sessionId == null) return;
+        invalidate(sessionId, sessions);
+        AfterCommit.run(() -> invalidate(sessionId, sessions));
+    }
+
+    /**
+     * A player of the session was added, changed or removed (or is about to be).
+     */
+    void invalidateRoster(String sessionId) {
+        if (sessionId == null) return;
+        invalidate(sessionId, rosters);
+        AfterCommit.run(() -> invalidate(sessionId, rosters));
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdle() {
+        evictIdle(sessions);
+        evictIdle(rosters);
+    }
+
+    private void invalidate(String sessionId, Map<String, ?> map) {
+        // Same monitor as the put* checks, so a fill cannot slip in between bump and remove.
+        synchronized (sessions) {
+            generations.incrementAndGet(stripe(sessionId));
+            map.remove(sessionId);
+        }
+    }
+
+    private static <V> void evictIdle(Map<String, Entry<V>> map) {
+        synchronized (map) {
+            Iterator<Entry<V>> it = map.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().isIdle()) it.remove();
+            }
+        }
+    }
+
+    private static boolean sameVersions(List<Player> cached, List<RowVersion> current) {
+        if (cached.size() != current.size()) return false;
+        // By id: the probe breaks join-time ties by id, the cached load may not have.
+        Map<String, Long> versions = new HashMap<>(cached.size() * 2);
+        for (Player p : cached) versions.put(p.getId(), p.getVersion());
+        for (RowVersion r : current) {
+            if (!versions.containsKey(r.id()) || !Objects.equals(versions.get(r.id()), r.version())) return false;
+        }
+        return true;
+    }
+
+    private static int stripe(String sessionId) {
+        return (sessionId.hashCode() & 0x7fffffff) % STRIPES;
+    }
+
+    static GameSession copy(GameSession s) {
+        GameSession c = new GameSession();
+        BeanUtils.copyProperties(s, c);
+        return c;
+    }
+
+    static Player copy(Player p) {
+        Player c = new Player();
+        BeanUtils.copyProperties(p, c);
+        return c;
+    }
+
+    private static Counter counter(MeterRegistry registry, String cache, String result) {
+        return Counter.builder("codeconquer.state.cache.requests")
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static <V> Map<String, V> lru(int maxSize) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        volatile long lastAccess = System.currentTimeMillis();
+
+        Entry(V value) {
+            this.value = value;
+        }
+
+        void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+
+        boolean isIdle() {
+            return System.currentTimeMillis() - lastAccess > IDLE_EVICT_MS;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.codeconquer.server.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory record of which sessions changed since the last lobby broadcast.
+ *
+ * Every write to a session or its players calls {@link #markChanged(String)} once the
+ * write is done. Keeping this free of other dependencies lets the core services
+ * report changes without depending on the push channels built on top of it.
+ *
+ * Only writes through this process are seen; HTTP validators are built from the persisted
+ * versions instead ({@link GameStateStore#stateTag}).
+ */
+@Component
+public class SessionChangeTracker {
+
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Records a change once the surrounding transaction (if any) has committed.
+     */
+    public void markChanged(String sessionId) {
+        if (sessionId == null || sessionId.isBlank()) return;
+        AfterCommit.run(() -> dirty.add(sessionId));
+    }
+
+    /**
+     * Returns and clears the sessions changed since the previous call.
+     */
+    public List<String> drainDirty() {
+        List<String> out = new ArrayList<>();
+        for (String id : dirty) {
+            if (dirty.remove(id)) out.add(id);
+        }
+        return out;
+    }
+}
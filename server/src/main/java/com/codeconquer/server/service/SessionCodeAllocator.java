@@ -0,0 +1,122 @@
+package com.codeconquer.server.service;
+
+import com.codeconquer.server.model.SessionCodeCursor;
+import com.codeconquer.server.repository.SessionCodeCursorRepository;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+
+/**
+ * Hands out 6-character session codes that are unique by construction.
+ *
+ * The code space (32^6 = 2^30) is walked in the order of a keyed Feistel permutation:
+ * position n maps to a distinct, random-looking 30-bit value, which is spelled in the
+ * code alphabet. A persisted cursor ({@link SessionCodeCursor}) records the next free
+ * position; instances reserve {@link #BLOCK_SIZE} positions per database write and
+ * allocate from memory in between, so a burst of new sessions neither probes for
+ * collisions nor writes the cursor per session. Positions of a block that is not used up
+ * before a restart are skipped.
+ */
+@Component
+public class SessionCodeAllocator {
+
+    static final String ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+    static final int CODE_LENGTH = 6;
+    static final long CODE_SPACE = 1L << (5 * CODE_LENGTH);
+    static final int BLOCK_SIZE = 64;
+    static final int MAX_ATTEMPTS = 8;
+
+    private static final String CURSOR_ID = "session-code";
+    private static final int HALF_BITS = 15;
+    private static final long HALF_MASK = (1L << HALF_BITS) - 1;
+    private static final int ROUNDS = 4;
+
+    private final SessionCodeCursorRepository cursorRepository;
+    // The block is reserved in its own transaction: a rolled back session create must not
+    // give its positions back to another instance.
+    private final TransactionTemplate tx;
+
+    // Current block [next, end) and the permutation key; guarded by this.
+    private long key;
+    private long next;
+    private long end;
+
+    public SessionCodeAllocator(SessionCodeCursorRepository cursorRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.cursorRepository = cursorRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public synchronized String next() {
+        if (next == end) reserveBlock();
+        return encode(permute(next++, key));
+    }
+
+    private void reserveBlock() {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                long[] block = tx.execute(status -> {
+                    SessionCodeCursor c = cursorRepository.findById(CURSOR_ID).orElseGet(() -> {
+                        SessionCodeCursor fresh = new SessionCodeCursor();
+                        fresh.setId(CURSOR_ID);
+                        fresh.setPermutationKey(new SecureRandom().nextLong());
+                        return fresh;
+                    });
+                    long start = c.getNextPosition();
+                    if (start >= CODE_SPACE) throw new IllegalStateException("Session code space exhausted");
+                    c.setNextPosition(Math.min(CODE_SPACE, start + BLOCK_SIZE));
+                    cursorRepository.save(c);
+                    return new long[]{c.getPermutationKey(), start, c.getNextPosition()};
+                });
+                key = block[0];
+                next = block[1];
+                end = block[2];
+                return;
+            } catch (OptimisticLockingFailureException | OptimisticLockException | DataIntegrityViolationException e) {
+                // Another instance moved the cursor (or created it) first; without the jitter two
+                // busy instances keep reading the same version and can run out of attempts.
+                if (attempt >= MAX_ATTEMPTS) throw e;
+                OptimisticRetry.backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Balanced Feistel network over 2 x 15 bits: a bijection on [0, 2^30).
+     */
+    static long permute(long position, long key) {
+        long left = position >>> HALF_BITS;
+        long right = position & HALF_MASK;
+        for (int round = 0; round < ROUNDS; round++) {
+            long mixed = left ^ roundFunction(right, key, round);
+            left = right;
+            right = mixed;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private static long roundFunction(long half, long key, int round) {
+        // SplitMix64 finalizer over (half, key, round).
+        long z = key + (round + 1) * 0x9E3779B97F4A7C15L + half * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return z & HALF_MASK;
+    }
+
+    static String encode(long value) {
+        char[] code = new char[CODE_LENGTH];
+        for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+            code[i] = ALPHABET.charAt((int) (value & 31));
+            value >>>= 5;
+        }
+        return new String(code);
+    }
+}
@@ -0,0 +1,73 @@
+package com.codeconquer.server.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Single-writer guard per session.
+ *
+ * Every mutating action of a session (dice, path choice, challenge, score, special card,
+ * lobby roll/ready/join/leave, handover) runs under the lock of its session, so two taps
+ * from different phones can no longer interleave their read-modify-write of the same
+ * GameSession. Locks are striped by sessionId: no per-session bookkeeping, and different
+ * sessions only contend on a (rare) stripe collision. Locks are reentrant, so actions may
+ * call each other (e.g. saveScore -> advanceTurn).
+ */
+@Component
+public class SessionLocks {
+
+    private static final int STRIPES = 256; // power of two
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public SessionLocks() {
+        for (int i = 0; i < STRIPES; i++) locks[i] = new ReentrantLock();
+    }
+
+    public <T> T call(String sessionId, Supplier<T> action) {
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void run(String sessionId, Runnable action) {
+        call(sessionId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the action only if the session is not busy right now; for background work that
+     * can simply try again later. Returns false if skipped.
+     */
+    public boolean tryRun(String sessionId, Runnable action) {
+        ReentrantLock lock = lockFor(sessionId);
+        if (!lock.tryLock()) return false;
+        try {
+            action.run();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether the calling thread is inside an action of this session.
+     */
+    public boolean isHeldByCurrentThread(String sessionId) {
+        return lockFor(sessionId).isHeldByCurrentThread();
+    }
+
+    private ReentrantLock lockFor(String sessionId) {
+        int h = sessionId == null ? 0 : sessionId.hashCode();
+        h ^= (h >>> 16);
+        return locks[h & (STRIPES - 1)];
+    }
+}
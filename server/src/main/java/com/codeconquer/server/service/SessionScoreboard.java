@@ -0,0 +1,117 @@
+package com.codeconquer.server.service;
+
+import com.codeconquer.server.dto.LeaderboardEntry;
+import com.codeconquer.server.model.Score;
+import com.codeconquer.server.model.ScoreAggregate;
+import com.codeconquer.server.repository.ScoreAggregateRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Score summary per session: points, attempts, mean time and errors of every player who
+ * submitted a score.
+ *
+ * {@link #record} updates the player's {@link ScoreAggregate} row in the same unit of work
+ * that saves the Score. Reads come from a sorted in-memory view per session, loaded from the
+ * aggregate rows on first use and patched once a recorded score commits. Neither side
+ * touches the Score table; both are O(players).
+ */
+@Service
+public class SessionScoreboard {
+
+    /** Sessions with a view; least recently used ones are dropped first. */
+    static final int MAX_SESSIONS = 1024;
+
+    private static final Comparator<LeaderboardEntry> ORDER = Comparator
+            .comparing(LeaderboardEntry::getTotalPoints, Comparator.reverseOrder())
+            .thenComparing(LeaderboardEntry::getAttempts, Comparator.reverseOrder())
+            .thenComparing(LeaderboardEntry::getPlayerName, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final ScoreAggregateRepository aggregateRepository;
+    private final SessionLocks sessionLocks;
+
+    private final Map<String, List<LeaderboardEntry>> views = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, List<LeaderboardEntry>> eldest) {
+                    return size() > MAX_SESSIONS;
+                }
+            });
+
+    public SessionScoreboard(ScoreAggregateRepository aggregateRepository, SessionLocks sessionLocks) {
+        this.aggregateRepository = aggregateRepository;
+        this.sessionLocks = sessionLocks;
+    }
+
+    /**
+     * Adds a saved score to its player's aggregate and returns the player's new totals.
+     * Call inside the score's transaction and session lock.
+     */
+    LeaderboardEntry record(Score score) {
+        ScoreAggregate a = aggregateRepository.findById(score.getPlayerId()).orElseGet(() -> {
+            ScoreAggregate fresh = new ScoreAggregate();
+            fresh.setPlayerId(score.getPlayerId());
+            fresh.setSessionId(score.getSessionId());
+            return fresh;
+        });
+        a.setPlayerName(score.getPlayerName());
+        if (score.getPoints() != 0 || a.getReachedScoreId() == null) a.setReachedScoreId(score.getId());
+        a.setTotalPoints(a.getTotalPoints() + score.getPoints());
+        a.setAttempts(a.getAttempts() + 1);
+        if (score.getTimeMs() != null) {
+            long n = a.getTimedAttempts() + 1;
+            double mean = a.getAvgTimeMs() == null ? 0 : a.getAvgTimeMs();
+            a.setAvgTimeMs(mean + (score.getTimeMs() - mean) / n);
+            a.setTimedAttempts(n);
+        }
+        if (score.getErrors() != null) a.setTotalErrors(a.getTotalErrors() + score.getErrors());
+
+        LeaderboardEntry entry = toEntry(aggregateRepository.save(a));
+        AfterCommit.run(() -> patch(score.getSessionId(), entry));
+        return entry;
+    }
+
+    /**
+     * Players of the session by points, then attempts (descending).
+     */
+    public List<LeaderboardEntry> getSummary(String sessionId) {
+        List<LeaderboardEntry> view = views.get(sessionId);
+        if (view != null) return view;
+        // Load under the session lock so a score committing meanwhile cannot be missed.
+        return sessionLocks.call(sessionId, () -> {
+            List<LeaderboardEntry> loaded = views.get(sessionId);
+            if (loaded != null) return loaded;
+            List<LeaderboardEntry> entries = new ArrayList<>();
+            for (ScoreAggregate a : aggregateRepository.findBySessionId(sessionId)) entries.add(toEntry(a));
+            entries.sort(ORDER);
+            loaded = List.copyOf(entries);
+            views.put(sessionId, loaded);
+            return loaded;
+        });
+    }
+
+    private void patch(String sessionId, LeaderboardEntry entry) {
+        synchronized (views) {
+            List<LeaderboardEntry> view = views.get(sessionId);
+            if (view == null) return; // loaded from the rows on next read
+            List<LeaderboardEntry> next = new ArrayList<>(view.size() + 1);
+            for (LeaderboardEntry e : view) {
+                if (!e.getPlayerId().equals(entry.getPlayerId())) next.add(e);
+            }
+            next.add(entry);
+            next.sort(ORDER);
+            views.put(sessionId, List.copyOf(next));
+        }
+    }
+
+    private static LeaderboardEntry toEntry(ScoreAggregate a) {
+        return new LeaderboardEntry(a.getPlayerId(), a.getPlayerName(), a.getTotalPoints(), a.getAttempts(),
+                a.getAvgTimeMs(), a.getTotalErrors());
+    }
+}
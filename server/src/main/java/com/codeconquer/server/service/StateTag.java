@@ -0,0 +1,29 @@
+package com.codeconquer.server.service;
+
+import com.codeconquer.server.repository.RowVersion;
+
+import java.util.List;
+
+/**
+ * Weak ETag for session-scoped reads (lobby, leaderboard), built from persisted state: the
+ * session row's {@code @Version} (which also moves with its event seq) and the ids and
+ * versions of its roster. Every instance computes the same tag for the same rows, and any
+ * committed write to the session or a player changes it.
+ */
+final class StateTag {
+
+    private StateTag() {}
+
+    /**
+     * @param localChanges writes not yet reflected in the versions (in-memory engine), else 0
+     */
+    static String of(Long sessionVersion, List<RowVersion> roster, long localChanges) {
+        long h = 17;
+        for (RowVersion r : roster) {
+            h = 31 * h + r.id().hashCode();
+            h = 31 * h + (r.version() == null ? -1 : r.version());
+        }
+        return "W/\"" + sessionVersion + "-" + roster.size() + "-" + Long.toHexString(h)
+                + (localChanges == 0 ? "" : "-" + localChanges) + "\"";
+    }
+}
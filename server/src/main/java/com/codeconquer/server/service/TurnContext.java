@@ -0,0 +1,116 @@
+package com.codeconquer.server.service;
+
+import com.codeconquer.server.model.GameSession;
+import com.codeconquer.server.model.Player;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Unit of work for one turn transition.
+ *
+ * Loads the session once, lets {@link GameSessionService} apply every step (advance,
+ * auto-skip, announce) to the same instances and writes the changed rows in one go at
+ * the end. Players are looked up by turn order through {@link TurnOrderIndex}, so only
+ * the ones a transition actually touches are read; the roster is only loaded to
+ * (re)build a missing index.
+ */
+final class TurnContext {
+
+    final GameSession session;
+    private final GameStateStore store;
+    private final TurnOrderIndex index;
+    // Player ids by turnOrder - 1.
+    private List<String> order;
+    private boolean rebuilt;
+    private final Set<Player> dirtyPlayers = new LinkedHashSet<>();
+    private boolean sessionDirty;
+
+    private TurnContext(GameStateStore store, TurnOrderIndex index, GameSession session) {
+        this.store = store;
+        this.index = index;
+        this.session = session;
+        this.order = index.get(session.getId());
+    }
+
+    static Optional<TurnContext> load(GameStateStore store, TurnOrderIndex index, String sessionId) {
+        return store.findSession(sessionId).map(s -> new TurnContext(store, index, s));
+    }
+
+    /**
+     * For callers that already hold the session.
+     */
+    static TurnContext of(GameStateStore store, TurnOrderIndex index, GameSession session) {
+        return new TurnContext(store, index, session);
+    }
+
+    int size() {
+        return order().size();
+    }
+
+    String playerIdAt(int turnOrder) {
+        List<String> ids = order();
+        if (turnOrder < 1 || turnOrder > ids.size()) return null;
+        return ids.get(turnOrder - 1);
+    }
+
+    Player playerAt(int turnOrder) {
+        String id = playerIdAt(turnOrder);
+        if (id == null) return null;
+        Player p = store.findPlayer(id).orElse(null);
+        if (p != null && p.getTurnOrder() == turnOrder && session.getId().equals(p.getSessionId())) return p;
+
+        // Index out of step with the rows (e.g. changed by another instance): rebuild once.
+        if (rebuilt) return p;
+        rebuild();
+        return playerAt(turnOrder);
+    }
+
+    void sessionChanged() {
+        sessionDirty = true;
+    }
+
+    void playerChanged(Player p) {
+        dirtyPlayers.add(p);
+    }
+
+    /**
+     * Writes what changed; returns true if anything was written.
+     */
+    boolean flush() {
+        if (!dirtyPlayers.isEmpty()) store.savePlayers(new ArrayList<>(dirtyPlayers));
+        if (sessionDirty) store.saveSession(session);
+        boolean wrote = sessionDirty || !dirtyPlayers.isEmpty();
+        dirtyPlayers.clear();
+        sessionDirty = false;
+        return wrote;
+    }
+
+    private List<String> order() {
+        if (order == null) rebuild();
+        return order;
+    }
+
+    /**
+     * Indexes the roster by turnOrder. Rows from before the dense 1..n invariant (gaps,
+     * zeros, duplicates) are renumbered in their established order.
+     */
+    private void rebuild() {
+        rebuilt = true;
+        List<Player> players = new ArrayList<>(store.findPlayers(session.getId()));
+        players.sort(Comparator.comparingInt(Player::getTurnOrder));
+        int i = 1;
+        for (Player p : players) {
+            if (p.getTurnOrder() != i) {
+                p.setTurnOrder(i);
+                dirtyPlayers.add(p);
+            }
+            i++;
+        }
+        order = index.put(session.getId(), players);
+    }
+}
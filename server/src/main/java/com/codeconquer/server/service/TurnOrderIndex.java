@@ -0,0 +1,92 @@
+package com.codeconquer.server.service;
+
+import com.codeconquer.server.model.Player;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Player ids of each session by turn order (index 0 holds turnOrder 1).
+ *
+ * Turn orders are kept dense (1..n) at the few places that change them: a player joins,
+ * a player leaves, lobby rolls are finalized. Those places update this index too, so turn
+ * transitions find the current player without loading and sorting the roster. A missing
+ * entry (restart, eviction, rolled-back change) is rebuilt from the roster by {@link TurnContext}.
+ *
+ * Writers hold the session lock, so entries are replaced as a whole and never shared mutably.
+ */
+@Component
+public class TurnOrderIndex {
+
+    /** Sessions with an index; least recently used ones are dropped first. */
+    static final int MAX_INDEXED_SESSIONS = 1024;
+
+    private final Map<String, List<String>> bySession = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+                    return size() > MAX_INDEXED_SESSIONS;
+                }
+            });
+
+    /**
+     * Ids by turn order, or null if the session is not indexed.
+     */
+    List<String> get(String sessionId) {
+        return bySession.get(sessionId);
+    }
+
+    /**
+     * Replaces the index of a session with the given players, already sorted and numbered 1..n.
+     */
+    List<String> put(String sessionId, List<Player> playersInOrder) {
+        List<String> ids = new ArrayList<>(playersInOrder.size());
+        for (Player p : playersInOrder) ids.add(p.getId());
+        return replace(sessionId, List.copyOf(ids));
+    }
+
+    /**
+     * A player joined at the end of the order.
+     */
+    void append(String sessionId, Player p) {
+        List<String> ids = bySession.get(sessionId);
+        if (ids == null) return;
+        if (ids.size() != p.getTurnOrder() - 1) {
+            // Out of step with the rows (older data); rebuild on next use.
+            invalidate(sessionId);
+            return;
+        }
+        List<String> next = new ArrayList<>(ids);
+        next.add(p.getId());
+        replace(sessionId, List.copyOf(next));
+    }
+
+    /**
+     * A player left; everyone behind them moved up one.
+     */
+    void remove(String sessionId, String playerId) {
+        List<String> ids = bySession.get(sessionId);
+        if (ids == null) return;
+        List<String> next = new ArrayList<>(ids);
+        if (!next.remove(playerId)) {
+            invalidate(sessionId);
+            return;
+        }
+        replace(sessionId, List.copyOf(next));
+    }
+
+    void invalidate(String sessionId) {
+        bySession.remove(sessionId);
+    }
+
+    private List<String> replace(String sessionId, List<String> ids) {
+        bySession.put(sessionId, ids);
+        // The rows behind this entry only exist once the action commits.
+        AfterCommit.onRollback(() -> invalidate(sessionId));
+        return ids;
+    }
+}
@@ -1,13 +1,12 @@
 package com.codeconquer.server.service;
 
 import com.codeconquer.server.board.BoardGraph;
+import com.codeconquer.server.board.CompiledBoard;
 import com.codeconquer.server.dto.TurnMoveResponse;
 import com.codeconquer.server.dto.ForkOption;
 import com.codeconquer.server.model.BoardNodeType;
 import com.codeconquer.server.model.GameSession;
 import com.codeconquer.server.model.Player;
-import com.codeconquer.server.repository.GameSessionRepository;
-import com.codeconquer.server.repository.PlayerRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -25,8 +24,9 @@ public class TurnService {
 
     private final GameSessionService sessionService;
     private final BoardGraphService boardService;
-    private final PlayerRepository playerRepository;
-    private final GameSessionRepository sessionRepository;
+    private final GameStateStore stateStore;
+    private final SessionLocks sessionLocks;
+    private final OptimisticRetry optimisticRetry;
 
     private final Random random = new Random();
 
@@ -39,15 +39,38 @@ public class TurnService {
 
     public TurnService(GameSessionService sessionService,
                        BoardGraphService boardService,
-                       PlayerRepository playerRepository,
-                       GameSessionRepository sessionRepository) {
+                       GameStateStore stateStore,
+                       SessionLocks sessionLocks,
+                       OptimisticRetry optimisticRetry) {
         this.sessionService = sessionService;
         this.boardService = boardService;
-        this.playerRepository = playerRepository;
-        this.sessionRepository = sessionRepository;
+        this.stateStore = stateStore;
+        this.sessionLocks = sessionLocks;
+        this.optimisticRetry = optimisticRetry;
     }
 
     public TurnMoveResponse rollD6(String sessionId, String playerId) {
+        return sessionLocks.call(sessionId, () -> {
+            try {
+                return optimisticRetry.call(() -> doRollD6(sessionId, playerId));
+            } finally {
+                // Saves below go straight to the store; report the change once at the end.
+                sessionService.markChanged(sessionId);
+            }
+        });
+    }
+
+    public TurnMoveResponse choosePath(String sessionId, String playerId, String toNodeId) {
+        return sessionLocks.call(sessionId, () -> {
+            try {
+                return optimisticRetry.call(() -> doChoosePath(sessionId, playerId, toNodeId));
+            } finally {
+                sessionService.markChanged(sessionId);
+            }
+        });
+    }
+
+    private TurnMoveResponse doRollD6(String sessionId, String playerId) {
         GameSession s = requireSession(sessionId);
         Player p = requirePlayer(playerId, sessionId);
         if (!s.isStarted()) throw new IllegalArgumentException("Session not started");
@@ -93,8 +116,8 @@ public class TurnService {
         } catch (Exception ignored) {}
 
         MoveResult mr = moveSteps(s, p, roll);
-        sessionRepository.save(s);
-        playerRepository.save(p);
+        stateStore.saveSession(s);
+        stateStore.savePlayer(p);
 
         // If we reached a terminal end-of-turn effect (JAIL), advance immediately.
         if (mr.turnEnded) {
@@ -102,14 +125,13 @@ public class TurnService {
             s.setTurnStartPlayerId(null);
             s.setTurnStartNodeId(null);
             sessionService.advanceTurn(sessionId);
-            sessionService.advanceTurnConsideringSkips(sessionId);
             return responseFor(sessionId, playerId, roll, p, s, mr, "Turn ended");
         }
 
         // SPECIAL card resolution blocks the turn until the player selects a card.
         if (GameSessionService.TURN_AWAITING_SPECIAL_CARD.equals(s.getTurnStatus())) {
-            sessionRepository.save(s);
-            playerRepository.save(p);
+            stateStore.saveSession(s);
+            stateStore.savePlayer(p);
             return responseFor(sessionId, playerId, roll, p, s, mr, "SPECIAL: draw a card");
         }
 
@@ -118,19 +140,13 @@ public class TurnService {
             return responseFor(sessionId, playerId, roll, p, s, mr, "Choose a path");
         }
 
-        // If movement ended exactly on a FORK node (no steps remaining):
-        // Fork nodes count as MEDIUM challenge fields, so we allow challenge selection.
-        String endPos = p.getPositionNodeId();
-        BoardNodeType endType = (endPos == null ? null : boardService.getBoard().getType(endPos));
-        // (No special handling needed here anymore.)
-
         // Movement finished normally -> allow challenge selection.
         s.setTurnStatus(GameSessionService.TURN_IDLE);
-        sessionRepository.save(s);
+        stateStore.saveSession(s);
         return responseFor(sessionId, playerId, roll, p, s, mr, "Moved");
     }
 
-    public TurnMoveResponse choosePath(String sessionId, String playerId, String toNodeId) {
+    private TurnMoveResponse doChoosePath(String sessionId, String playerId, String toNodeId) {
         GameSession s = requireSession(sessionId);
         Player p = requirePlayer(playerId, sessionId);
         if (!s.isStarted()) throw new IllegalArgumentException("Session not started");
@@ -154,24 +170,25 @@ public class TurnService {
         int remaining = s.getPendingRemainingSteps();
         if (remaining <= 0) throw new IllegalArgumentException("No remaining steps");
 
-        BoardGraph board = boardService.getBoard();
-        List<String> outs = board.outgoing(forkNode);
-        if (outs == null || outs.isEmpty()) throw new IllegalArgumentException("Fork has no outgoing edges");
-        if (!outs.contains(toNodeId)) throw new IllegalArgumentException("Invalid path choice");
+        BoardGraph board = boardService.forSession(s).getGraph();
+        int fork = board.indexOf(forkNode);
+        if (fork < 0 || board.outDegree(fork) == 0) throw new IllegalArgumentException("Fork has no outgoing edges");
+        int to = board.indexOf(toNodeId);
+        if (to < 0 || !board.hasEdge(fork, to)) throw new IllegalArgumentException("Invalid path choice");
 
         // Consume 1 step by moving from fork -> chosen node
-        p.setPositionNodeId(toNodeId);
+        p.setPositionNodeId(board.idOf(to));
 
         // Apply immediate landing effects for the chosen node before continuing.
-        BoardNodeType landed = board.getType(toNodeId);
+        BoardNodeType landed = board.typeOf(to);
         if (landed == BoardNodeType.SPECIAL) {
             // SPECIAL: player must draw a special card (real-life) and then select it in the app.
             s.setPendingForkNodeId(null);
             s.setPendingRemainingSteps(null);
             s.setTurnStatus(GameSessionService.TURN_AWAITING_SPECIAL_CARD);
             sessionService.publishEvent(s, "SPECIAL", "🃏 " + formatPlayer(p) + " zieht eine Special-Karte.");
-            sessionRepository.save(s);
-            playerRepository.save(p);
+            stateStore.saveSession(s);
+            stateStore.savePlayer(p);
 
             Integer roll = s.getLastDiceRoll();
             return responseFor(sessionId, playerId, roll, p, s, new MoveResult(), "SPECIAL: draw a card");
@@ -185,11 +202,10 @@ public class TurnService {
             s.setTurnStartPlayerId(null);
             s.setTurnStartNodeId(null);
             s.setTurnStatus(GameSessionService.TURN_AWAITING_D6_ROLL);
-            sessionRepository.save(s);
-            playerRepository.save(p);
+            stateStore.saveSession(s);
+            stateStore.savePlayer(p);
 
             sessionService.advanceTurn(sessionId);
-            sessionService.advanceTurnConsideringSkips(sessionId);
             Integer roll = s.getLastDiceRoll();
             return responseFor(sessionId, playerId, roll, p, s, new MoveResult(), "Landed on JAIL");
         }
@@ -200,8 +216,8 @@ public class TurnService {
             s.setTurnStartNodeId(null);
             sessionService.finishSession(sessionId, playerId);
             s = requireSession(sessionId);
-            sessionRepository.save(s);
-            playerRepository.save(p);
+            stateStore.saveSession(s);
+            stateStore.savePlayer(p);
             Integer roll = s.getLastDiceRoll();
             return responseFor(sessionId, playerId, roll, p, s, new MoveResult(), "Reached FINISH");
         }
@@ -211,8 +227,8 @@ public class TurnService {
         s.setPendingRemainingSteps(null);
 
         MoveResult mr = moveSteps(s, p, remaining - 1);
-        sessionRepository.save(s);
-        playerRepository.save(p);
+        stateStore.saveSession(s);
+        stateStore.savePlayer(p);
 
         Integer roll = s.getLastDiceRoll();
 
@@ -220,8 +236,8 @@ public class TurnService {
         // moveSteps() sets TURN_AWAITING_SPECIAL_CARD and stops movement.
         // We must NOT overwrite that state by setting TURN_IDLE below.
         if (GameSessionService.TURN_AWAITING_SPECIAL_CARD.equals(s.getTurnStatus())) {
-            sessionRepository.save(s);
-            playerRepository.save(p);
+            stateStore.saveSession(s);
+            stateStore.savePlayer(p);
             return responseFor(sessionId, playerId, roll, p, s, mr, "SPECIAL: draw a card");
         }
 
@@ -230,7 +246,6 @@ public class TurnService {
             s.setTurnStartPlayerId(null);
             s.setTurnStartNodeId(null);
             sessionService.advanceTurn(sessionId);
-            sessionService.advanceTurnConsideringSkips(sessionId);
             return responseFor(sessionId, playerId, roll, p, s, mr, "Turn ended");
         }
 
@@ -241,54 +256,30 @@ public class TurnService {
         // Fork nodes count as MEDIUM challenge fields, so we allow challenge selection.
 
         s.setTurnStatus(GameSessionService.TURN_IDLE);
-        sessionRepository.save(s);
+        stateStore.saveSession(s);
         return responseFor(sessionId, playerId, roll, p, s, mr, "Moved");
     }
 
     private MoveResult moveSteps(GameSession s, Player p, int steps) {
-        BoardGraph board = boardService.getBoard();
+        CompiledBoard compiled = boardService.forSession(s);
+        BoardGraph board = compiled.getGraph();
         MoveResult mr = new MoveResult();
 
-        int remaining = steps;
-        while (remaining > 0) {
-            String cur = p.getPositionNodeId();
-            if (cur == null || cur.isBlank()) {
-                p.setPositionNodeId(boardService.getStartNodeId());
-                cur = p.getPositionNodeId();
-            }
-
-            BoardNodeType t = board.getType(cur);
-            if (t == BoardNodeType.FINISH) {
-                // Already at finish, no further moves.
-                remaining = 0;
-                break;
-            }
-
-            List<String> outs = board.outgoing(cur);
-            if (outs.size() > 1) {
-                // Stop at fork before consuming more steps.
-                s.setTurnStatus(GameSessionService.TURN_AWAITING_PATH_CHOICE);
-                s.setPendingForkNodeId(cur);
-                s.setPendingRemainingSteps(remaining);
-                mr.awaitingChoice = true;
-                mr.forkNodeId = cur;
-                mr.remainingSteps = remaining;
-                mr.options = boardService.getForkOptions(cur);
-                return mr;
-            }
-            if (outs.isEmpty()) {
-                // Dead end: stop movement.
-                remaining = 0;
-                break;
-            }
+        int from = board.indexOf(p.getPositionNodeId());
+        if (from < 0) {
+            from = board.startIndex();
+            p.setPositionNodeId(board.idOf(from));
+        }
 
-            // Single path
-            String next = outs.get(0);
-            p.setPositionNodeId(next);
-            remaining--;
+        // Where this roll ends is precomputed per (node, roll); apply the stop.
+        long stop = board.move(from, steps);
+        int node = BoardGraph.stopNode(stop);
+        int remaining = BoardGraph.stopRemaining(stop);
+        p.setPositionNodeId(board.idOf(node));
 
-            // Landing effects
-            BoardNodeType landedType = board.getType(next);
+        // Landing effects
+        if (remaining < steps && board.isLandingStop(node)) {
+            BoardNodeType landedType = board.typeOf(node);
             if (landedType == BoardNodeType.SPECIAL) {
                 // SPECIAL: player must draw a special card (real-life) and then select it in the app.
                 s.setTurnStatus(GameSessionService.TURN_AWAITING_SPECIAL_CARD);
@@ -304,31 +295,32 @@ public class TurnService {
                 mr.turnEnded = true;
                 return mr;
             }
-            if (landedType == BoardNodeType.FINISH) {
-                // Finish game immediately.
-                sessionService.finishSession(s.getId(), p.getId());
-                mr.turnEnded = true;
-                return mr;
-            }
+            // Finish game immediately.
+            sessionService.finishSession(s.getId(), p.getId());
+            mr.turnEnded = true;
+            return mr;
         }
-        mr.awaitingChoice = false;
-        return mr;
-    }
 
-    private void sendToJailForOneTurn(Player p, String returnNodeId) {
-        String jailId = boardService.getJailNodeId();
-        if (jailId == null || jailId.isBlank()) {
-            // If no jail node is defined, fall back to a normal skip without teleport.
-            p.setSkipTurns(1);
-            return;
+        if (remaining > 0 && board.outDegree(node) > 1 && board.typeOf(node) != BoardNodeType.FINISH) {
+            // Stop at fork before consuming more steps.
+            String cur = board.idOf(node);
+            s.setTurnStatus(GameSessionService.TURN_AWAITING_PATH_CHOICE);
+            s.setPendingForkNodeId(cur);
+            s.setPendingRemainingSteps(remaining);
+            mr.awaitingChoice = true;
+            mr.forkNodeId = cur;
+            mr.remainingSteps = remaining;
+            mr.options = compiled.getForkOptions(cur);
+            return mr;
         }
-        p.setJailReturnNodeId(returnNodeId);
-        p.setPositionNodeId(jailId);
-        p.setSkipTurns(1);
+
+        // Steps used up, dead end, or already at finish.
+        mr.awaitingChoice = false;
+        return mr;
     }
 
     private TurnMoveResponse responseFor(String sessionId, String playerId, Integer roll, Player p, GameSession s, MoveResult mr, String msg) {
-        BoardGraph board = boardService.getBoard();
+        BoardGraph board = boardService.forSession(s).getGraph();
         String pos = p.getPositionNodeId();
         BoardNodeType t = pos == null ? null : board.getType(pos);
         String type = t == null ? null : t.name();
@@ -353,7 +345,7 @@ public class TurnService {
 
     private Player requirePlayer(String playerId, String sessionId) {
         if (playerId == null || playerId.isBlank()) throw new IllegalArgumentException("playerId required");
-        Player p = playerRepository.findById(playerId).orElseThrow(() -> new IllegalArgumentException("Player not found"));
+        Player p = stateStore.findPlayer(playerId).orElseThrow(() -> new IllegalArgumentException("Player not found"));
         if (p.getSessionId() == null || !p.getSessionId().equals(sessionId)) throw new IllegalArgumentException("Player not found for session");
         return p;
     }
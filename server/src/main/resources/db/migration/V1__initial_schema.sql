@@ -0,0 +1,93 @@
+-- Schema of the entities in com.codeconquer.server.model (prod profile; the default profile
+-- lets Hibernate create it). Indexes follow the query shapes of the repositories.
+
+CREATE TABLE game_session (
+    id                      VARCHAR(255) NOT NULL PRIMARY KEY,
+    version                 BIGINT,
+    code                    VARCHAR(255),
+    board_id                VARCHAR(255),
+    started                 BOOLEAN NOT NULL,
+    status                  VARCHAR(255),
+    winner_player_id        VARCHAR(255),
+    turn_order_locked       BOOLEAN NOT NULL,
+    current_turn_order      INTEGER NOT NULL,
+    turn_status             VARCHAR(255),
+    active_challenge_id     VARCHAR(255),
+    last_dice_roll          INTEGER,
+    pending_fork_node_id    VARCHAR(255),
+    pending_remaining_steps INTEGER,
+    turn_start_player_id    VARCHAR(255),
+    turn_start_node_id      VARCHAR(255),
+    last_event_seq          BIGINT NOT NULL,
+    last_event_type         VARCHAR(255),
+    last_event_message      VARCHAR(255),
+    last_event_at           TIMESTAMP(6) WITH TIME ZONE,
+    created_at              TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT uk_game_session_code UNIQUE (code)
+);
+
+CREATE TABLE player (
+    id                           VARCHAR(255) NOT NULL PRIMARY KEY,
+    version                      BIGINT,
+    session_id                   VARCHAR(255),
+    name                         VARCHAR(255),
+    name_key                     VARCHAR(255),
+    icon                         VARCHAR(255),
+    color                        VARCHAR(255),
+    ready                        BOOLEAN NOT NULL,
+    turn_order                   INTEGER NOT NULL,
+    total_score                  INTEGER NOT NULL,
+    last_challenge_category      VARCHAR(255),
+    lobby_roll                   INTEGER,
+    position_node_id             VARCHAR(255),
+    skip_turns                   INTEGER NOT NULL,
+    jail_return_node_id          VARCHAR(255),
+    ignore_next_positive_special BOOLEAN NOT NULL,
+    next_dice_advantage          BOOLEAN NOT NULL,
+    next_hard_becomes_medium     BOOLEAN NOT NULL,
+    next_hard_becomes_easy       BOOLEAN NOT NULL,
+    created_at                   TIMESTAMP(6) WITH TIME ZONE
+);
+
+-- Roster in join order.
+CREATE INDEX idx_player_session_created ON player (session_id, created_at);
+-- Per-session leaderboard.
+CREATE INDEX idx_player_session_score ON player (session_id, total_score);
+-- Case-insensitive name lookup (name_key = upper-cased name, see Player.nameKeyOf).
+CREATE INDEX idx_player_session_name_key ON player (session_id, name_key);
+
+CREATE TABLE score (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    session_id   VARCHAR(255),
+    session_code VARCHAR(255),
+    challenge_id VARCHAR(255),
+    player_id    VARCHAR(255),
+    player_name  VARCHAR(255),
+    category     VARCHAR(255),
+    difficulty   VARCHAR(255),
+    points       INTEGER NOT NULL,
+    time_ms      BIGINT,
+    errors       INTEGER,
+    created_at   TIMESTAMP(6) WITH TIME ZONE
+);
+
+-- Score history and aggregation per (session, player).
+CREATE INDEX idx_score_session_player ON score (session_id, player_name);
+
+CREATE TABLE game_event (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    session_id VARCHAR(255) NOT NULL,
+    seq        BIGINT NOT NULL,
+    type       VARCHAR(255) NOT NULL,
+    message    VARCHAR(500) NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_game_event_session_seq ON game_event (session_id, seq);
+
+CREATE TABLE session_code_cursor (
+    id              VARCHAR(255) NOT NULL PRIMARY KEY,
+    version         BIGINT,
+    permutation_key BIGINT NOT NULL,
+    next_position   BIGINT NOT NULL
+);
@@ -0,0 +1,24 @@
+-- Running score totals per player (ScoreAggregate), maintained by SessionScoreboard.
+
+CREATE TABLE score_aggregate (
+    player_id      VARCHAR(255) NOT NULL PRIMARY KEY,
+    version        BIGINT,
+    session_id     VARCHAR(255),
+    player_name    VARCHAR(255),
+    total_points   BIGINT NOT NULL,
+    attempts       BIGINT NOT NULL,
+    avg_time_ms    DOUBLE PRECISION,
+    timed_attempts BIGINT NOT NULL,
+    total_errors   BIGINT NOT NULL
+);
+
+CREATE INDEX idx_score_aggregate_session ON score_aggregate (session_id);
+
+-- Scores saved before this migration.
+INSERT INTO score_aggregate (player_id, version, session_id, player_name, total_points, attempts,
+                             avg_time_ms, timed_attempts, total_errors)
+SELECT player_id, 0, MAX(session_id), MAX(player_name), SUM(points), COUNT(*),
+       AVG(CAST(time_ms AS DOUBLE PRECISION)), COUNT(time_ms), SUM(COALESCE(errors, 0))
+FROM score
+WHERE player_id IS NOT NULL
+GROUP BY player_id;
@@ -0,0 +1,10 @@
+-- Score and GameEvent take ids from pooled sequences (blocks of 50, pooled-lo) instead of
+-- IDENTITY columns, so their inserts can be batched.
+
+ALTER TABLE score ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE score_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE score_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM score);
+
+ALTER TABLE game_event ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE game_event_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE game_event_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM game_event);
@@ -0,0 +1,10 @@
+-- Which score brought each player to their current total (ScoreAggregate.reachedScoreId), so the
+-- global leaderboard orders equal totals by who reached them first, also after a restart.
+
+ALTER TABLE score_aggregate ADD COLUMN reached_score_id BIGINT;
+
+UPDATE score_aggregate a
+SET reached_score_id = (SELECT MAX(s.id) FROM score s WHERE s.player_id = a.player_id AND s.points <> 0);
+UPDATE score_aggregate a
+SET reached_score_id = (SELECT MIN(s.id) FROM score s WHERE s.player_id = a.player_id)
+WHERE reached_score_id IS NULL;
@@ -0,0 +1,177 @@
+package com.codeconquer.server;
+
+import com.codeconquer.server.model.GameSession;
+import com.codeconquer.server.model.Player;
+import com.codeconquer.server.model.Score;
+import com.codeconquer.server.repository.ScoreRepository;
+import com.codeconquer.server.service.GameSessionService;
+import com.codeconquer.server.service.GameStateStore;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round-trips of the bulk write paths, counted as prepared statements, measured with JDBC
+ * batching switched off for the session ("before": one statement per row, as with IDENTITY
+ * ids) and with the configured batching and pooled-lo ids ("after"):
+ *
+ * <pre>
+ *   path                              before  after
+ *   turn order recompute, 8 players        9      2   (roster select + updates)
+ *   10 score inserts                      11    1-2   (inserts + sequence call, unless a block is left)
+ *   turn handover, 3 players               3      3
+ * </pre>
+ *
+ * The handover writes one row per table, so batching cannot shorten it; it is measured to
+ * show it does not get worse. IDENTITY itself cannot be switched back on at runtime: before
+ * the change the inserts were the same n statements, without the sequence call.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BatchedWriteRoundTripTest {
+
+	private static final int PLAYERS = 8;
+	private static final int SCORES = 10;
+
+	@Autowired
+	private GameSessionService sessionService;
+
+	@Autowired
+	private GameStateStore stateStore;
+
+	@Autowired
+	private ScoreRepository scoreRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	void turnOrderRecomputeIsOneBatchedUpdate() {
+		long before = recomputeTurnOrder(false);
+		long after = recomputeTurnOrder(true);
+
+		assertTrue(before >= PLAYERS + 1, "unbatched turn order recompute prepared " + before + " statements");
+		assertTrue(after <= 2, "turn order recompute of " + PLAYERS + " players prepared " + after + " statements");
+	}
+
+	@Test
+	void scoreInsertsShareSequenceCallsAndOneBatch() {
+		long before = insertScores(false);
+		long after = insertScores(true);
+
+		assertTrue(before >= SCORES, "unbatched score inserts prepared " + before + " statements");
+		// One batched INSERT plus one sequence call, two if the id block runs out midway.
+		assertTrue(after <= 3, SCORES + " score inserts prepared " + after + " statements");
+	}
+
+	@Test
+	void turnHandoverDoesNotGrowWithBatching() {
+		long before = handover(false);
+		long after = handover(true);
+
+		assertTrue(after <= before, "batched handover prepared " + after + " statements, unbatched " + before);
+		assertTrue(after <= 4, "handover prepared " + after + " statements");
+	}
+
+	private long recomputeTurnOrder(boolean batched) {
+		GameSession s = sessionService.createNew();
+		Instant joined = Instant.now();
+		for (int i = 1; i <= PLAYERS; i++) {
+			Player p = player(s, i);
+			// Ascending rolls: sorting by roll descending moves every player.
+			p.setLobbyRoll(i);
+			p.setCreatedAt(joined.plusMillis(i));
+			stateStore.savePlayer(p);
+		}
+
+		long statements = countStatements(batched, () ->
+				sessionService.recomputeTurnOrderFromLobbyRoll(s.getId(), stateStore.findPlayers(s.getId())));
+
+		List<Player> reordered = stateStore.findPlayers(s.getId());
+		assertEquals(PLAYERS, reordered.get(0).getTurnOrder());
+		assertEquals(1, reordered.get(PLAYERS - 1).getTurnOrder());
+		return statements;
+	}
+
+	private long insertScores(boolean batched) {
+		String sessionId = UUID.randomUUID().toString();
+
+		long statements = countStatements(batched, () -> {
+			for (int i = 0; i < SCORES; i++) {
+				Score score = new Score();
+				score.setSessionId(sessionId);
+				score.setPlayerId("p" + i);
+				score.setPoints(5);
+				score.setCreatedAt(Instant.now());
+				scoreRepository.save(score);
+			}
+		});
+
+		assertEquals(SCORES, scoreRepository.findBySessionIdOrderByIdAsc(sessionId).size());
+		return statements;
+	}
+
+	private long handover(boolean batched) {
+		GameSession s = sessionService.createNew();
+		Player first = null;
+		for (int i = 1; i <= 3; i++) {
+			Player p = player(s, i);
+			p.setCreatedAt(Instant.now());
+			stateStore.savePlayer(p);
+			if (i == 1) first = p;
+		}
+		s.setStarted(true);
+		s.setStatus(GameSessionService.SESSION_IN_PROGRESS);
+		s.setCurrentTurnOrder(1);
+		s.setTurnStatus(GameSessionService.TURN_AWAITING_CONFIRM);
+		stateStore.saveSession(s);
+
+		String firstId = first.getId();
+		long statements = countStatements(batched, () -> sessionService.confirmTurnHandover(s.getId(), firstId));
+
+		assertEquals(2, stateStore.findSession(s.getId()).orElseThrow().getCurrentTurnOrder());
+		return statements;
+	}
+
+	/**
+	 * Prepared statements of the action, run in one transaction; unbatched sends every row on its own.
+	 */
+	private long countStatements(boolean batched, Runnable action) {
+		Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		stats.clear();
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			if (!batched) entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+			action.run();
+		});
+		return stats.getPrepareStatementCount();
+	}
+
+	private static Player player(GameSession s, int i) {
+		Player p = new Player();
+		p.setId(UUID.randomUUID().toString());
+		p.setSessionId(s.getId());
+		p.setName("P" + i);
+		p.setTurnOrder(i);
+		return p;
+	}
+
+}
@@ -0,0 +1,95 @@
+package com.codeconquer.server;
+
+import com.codeconquer.server.model.GameSession;
+import com.codeconquer.server.model.Player;
+import com.codeconquer.server.model.Score;
+import com.codeconquer.server.repository.ScoreRepository;
+import com.codeconquer.server.service.GameSessionService;
+import com.codeconquer.server.service.GameStateStore;
+import com.codeconquer.server.service.GlobalLeaderboard;
+import com.codeconquer.server.service.ScoreService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * A score submit whose first attempt hits a version conflict after the Score was inserted:
+ * the retry has to insert it again as a new row, not merge the id of the rolled-back one.
+ */
+@SpringBootTest
+class ScoreSaveRetryTest {
+
+	@Autowired
+	private ScoreService scoreService;
+
+	@Autowired
+	private GameSessionService sessionService;
+
+	@Autowired
+	private GameStateStore stateStore;
+
+	@Autowired
+	private ScoreRepository scoreRepository;
+
+	@MockitoSpyBean
+	private GlobalLeaderboard globalLeaderboard;
+
+	@Test
+	void conflictAfterInsertIsRetriedAsOneNewRow() {
+		GameSession s = sessionService.createNew();
+		Player p = new Player();
+		p.setId(UUID.randomUUID().toString());
+		p.setSessionId(s.getId());
+		p.setName("P1");
+		p.setTurnOrder(1);
+		p.setCreatedAt(Instant.now());
+		stateStore.savePlayer(p);
+		s.setStarted(true);
+		s.setStatus(GameSessionService.SESSION_IN_PROGRESS);
+		s.setCurrentTurnOrder(1);
+		s.setTurnStatus(GameSessionService.TURN_IN_CHALLENGE);
+		s.setActiveChallengeId("c1");
+		stateStore.saveSession(s);
+
+		// The first attempt fails after scoreRepository.save, like a conflict on the aggregate would.
+		doThrow(new ObjectOptimisticLockingFailureException(Player.class, p.getId()))
+				.doCallRealMethod()
+				.when(globalLeaderboard).update(any(), any(), anyLong());
+
+		Score submitted = new Score();
+		submitted.setSessionId(s.getId());
+		submitted.setPlayerId(p.getId());
+		submitted.setChallengeId("c1");
+		submitted.setDifficulty("EASY");
+		submitted.setPoints(5);
+
+		Score saved = scoreService.saveScore(submitted);
+
+		verify(globalLeaderboard, times(2)).update(any(), any(), anyLong());
+		List<Score> rows = scoreRepository.findBySessionIdOrderByIdAsc(s.getId());
+		assertEquals(1, rows.size());
+		assertEquals(saved.getId(), rows.get(0).getId());
+		assertEquals("P1", rows.get(0).getPlayerName());
+		assertNotNull(rows.get(0).getCreatedAt());
+		// The caller's object is left as it was sent.
+		assertNull(submitted.getId());
+		assertNull(submitted.getPlayerName());
+	}
+
+}
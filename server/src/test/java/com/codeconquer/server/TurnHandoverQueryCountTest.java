@@ -0,0 +1,67 @@
+package com.codeconquer.server;
+
+import com.codeconquer.server.model.GameSession;
+import com.codeconquer.server.model.Player;
+import com.codeconquer.server.service.GameSessionService;
+import com.codeconquer.server.service.GameStateStore;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pins the database cost of a turn handover to a small constant, independent of how many
+ * steps the transition takes: the session, the current and the next player (or the roster
+ * when the turn-order index is cold) and one session update.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class TurnHandoverQueryCountTest {
+
+	@Autowired
+	private GameSessionService sessionService;
+
+	@Autowired
+	private GameStateStore stateStore;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void handoverRunsAConstantNumberOfStatements() {
+		GameSession s = sessionService.createNew();
+		Player first = null;
+		for (int i = 1; i <= 3; i++) {
+			Player p = new Player();
+			p.setId(UUID.randomUUID().toString());
+			p.setSessionId(s.getId());
+			p.setName("P" + i);
+			p.setTurnOrder(i);
+			p.setCreatedAt(Instant.now());
+			stateStore.savePlayer(p);
+			if (i == 1) first = p;
+		}
+		s.setStarted(true);
+		s.setStatus(GameSessionService.SESSION_IN_PROGRESS);
+		s.setCurrentTurnOrder(1);
+		s.setTurnStatus(GameSessionService.TURN_AWAITING_CONFIRM);
+		stateStore.saveSession(s);
+
+		Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		stats.clear();
+
+		sessionService.confirmTurnHandover(s.getId(), first.getId());
+
+		long statements = stats.getPrepareStatementCount();
+		assertTrue(statements <= 4, "handover prepared " + statements + " statements");
+		assertEquals(2, stateStore.findSession(s.getId()).orElseThrow().getCurrentTurnOrder());
+	}
+
+}
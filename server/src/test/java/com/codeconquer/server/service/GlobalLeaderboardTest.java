@@ -0,0 +1,157 @@
+package com.codeconquer.server.service;
+
+import com.codeconquer.server.dto.GlobalRankEntry;
+import com.codeconquer.server.dto.LeaderboardEntry;
+import com.codeconquer.server.model.ScoreAggregate;
+import com.codeconquer.server.repository.ScoreAggregateRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ranking order and shared ranks of {@link GlobalLeaderboard}. Updates outside a transaction
+ * apply immediately, so no Spring context is needed.
+ */
+class GlobalLeaderboardTest {
+
+	private long nextScoreId = 1;
+
+	@Test
+	void equalTotalsShareARankInTheOrderTheyWereReached() {
+		GlobalLeaderboard board = board(List.of());
+		score(board, "a", 10);
+		score(board, "b", 10);
+		score(board, "c", 20);
+		score(board, "d", 5);
+
+		assertEquals(List.of("c:1", "a:2", "b:2", "d:4"), ranks(board.top(10)));
+		assertEquals(2, board.rank("b").getRank());
+		assertNull(board.rank("nobody"));
+	}
+
+	@Test
+	void updateWithTheSameTotalKeepsThePlaceAmongEquals() {
+		GlobalLeaderboard board = board(List.of());
+		score(board, "a", 10);
+		score(board, "b", 10);
+		board.update("s", new LeaderboardEntry("a", "renamed", 10L, 2L, null, 0L), nextScoreId++);
+
+		List<GlobalRankEntry> top = board.top(10);
+		assertEquals(List.of("a:1", "b:1"), ranks(top));
+		assertEquals("renamed", top.get(0).getPlayerName());
+	}
+
+	@Test
+	void playersLeaveAndJoinAGroupOfEqualTotals() {
+		GlobalLeaderboard board = board(List.of());
+		score(board, "a", 10);
+		score(board, "b", 10);
+		score(board, "c", 10);
+
+		// Leaving from the middle of the group, then joining another one at its end.
+		score(board, "b", 20);
+		assertEquals(List.of("b:1", "a:2", "c:2"), ranks(board.top(10)));
+		score(board, "a", 20);
+		assertEquals(List.of("b:1", "a:1", "c:3"), ranks(board.top(10)));
+		score(board, "b", 10);
+		assertEquals(List.of("a:1", "c:2", "b:2"), ranks(board.top(10)));
+	}
+
+	@Test
+	void rankFollowsTotalChanges() {
+		GlobalLeaderboard board = board(List.of());
+		for (int i = 1; i <= 5; i++) score(board, "p" + i, i * 10);
+		assertEquals(5, board.rank("p1").getRank());
+
+		score(board, "p1", 35);
+		assertEquals(3, board.rank("p1").getRank());
+		assertEquals(4, board.rank("p3").getRank());
+
+		score(board, "p1", 50);
+		assertEquals(1, board.rank("p1").getRank());
+		assertEquals(1, board.rank("p5").getRank());
+		assertEquals(3, board.rank("p4").getRank());
+
+		score(board, "p1", 0);
+		assertEquals(5, board.rank("p1").getRank());
+		assertEquals(0, board.rank("p1").getTotalPoints());
+	}
+
+	@Test
+	void aroundIsClippedAtBothEnds() {
+		GlobalLeaderboard board = board(List.of());
+		for (int i = 1; i <= 10; i++) score(board, "p" + i, 100 - i);
+
+		assertEquals(List.of("p1", "p2", "p3"), ids(board.around("p1", 2)));
+		assertEquals(List.of("p8", "p9", "p10"), ids(board.around("p10", 2)));
+		assertEquals(List.of("p3", "p4", "p5", "p6", "p7"), ids(board.around("p5", 2)));
+		assertEquals(List.of("p5"), ids(board.around("p5", 0)));
+		assertEquals(10, board.around("p5", 50).size());
+		assertTrue(board.around("nobody", 2).isEmpty());
+	}
+
+	@Test
+	void rebuildFromAggregatesMatchesLiveUpdates() {
+		GlobalLeaderboard live = board(List.of());
+		Map<String, ScoreAggregate> aggregates = new LinkedHashMap<>();
+		Random random = new Random(42);
+		int[] points = {-5, 0, 0, 5, 5, 10};
+
+		for (int i = 0; i < 500; i++) {
+			String playerId = "p" + random.nextInt(40);
+			long scoreId = nextScoreId++;
+			int p = points[random.nextInt(points.length)];
+
+			// Same bookkeeping as SessionScoreboard.record.
+			ScoreAggregate a = aggregates.computeIfAbsent(playerId, id -> {
+				ScoreAggregate created = new ScoreAggregate();
+				created.setPlayerId(id);
+				created.setPlayerName(id.toUpperCase());
+				created.setSessionId("s");
+				return created;
+			});
+			a.setTotalPoints(a.getTotalPoints() + p);
+			if (p != 0 || a.getReachedScoreId() == null) a.setReachedScoreId(scoreId);
+
+			live.update("s", new LeaderboardEntry(playerId, a.getPlayerName(), a.getTotalPoints(), 1L, null, 0L), scoreId);
+		}
+
+		GlobalLeaderboard rebuilt = board(new ArrayList<>(aggregates.values()));
+		assertEquals(live.top(100), rebuilt.top(100));
+	}
+
+	private GlobalLeaderboard board(List<ScoreAggregate> rows) {
+		ScoreAggregateRepository repository = mock(ScoreAggregateRepository.class);
+		when(repository.findAll()).thenReturn(rows);
+		GlobalLeaderboard board = new GlobalLeaderboard(repository);
+		board.rebuild();
+		return board;
+	}
+
+	private void score(GlobalLeaderboard board, String playerId, long total) {
+		board.update("s", new LeaderboardEntry(playerId, playerId.toUpperCase(), total, 1L, null, 0L), nextScoreId++);
+	}
+
+	private static List<String> ranks(List<GlobalRankEntry> entries) {
+		List<String> out = new ArrayList<>();
+		for (GlobalRankEntry e : entries) out.add(e.getPlayerId() + ":" + e.getRank());
+		return out;
+	}
+
+	private static List<String> ids(List<GlobalRankEntry> entries) {
+		List<String> out = new ArrayList<>();
+		for (GlobalRankEntry e : entries) out.add(e.getPlayerId());
+		return out;
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.codeconquer.server.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Replays, key reuse and expiry of {@link IdempotencyCache}, with a clock the test moves.
+ */
+class IdempotencyCacheTest {
+
+	private long now = 1_000_000L;
+
+	private final IdempotencyCache cache = new IdempotencyCache(new SessionLocks()) {
+		@Override
+		long now() {
+			return now;
+		}
+	};
+
+	@Test
+	void replayReturnsTheOriginalResponseWithoutRunningAgain() {
+		Counting action = new Counting(HttpStatus.OK);
+
+		ResponseEntity<String> first = cache.call("s", "p", "roll", "k1", List.of(), action);
+		ResponseEntity<String> replay = cache.call("s", "p", "roll", "k1", List.of(), action);
+
+		assertEquals(1, action.runs.get());
+		assertSame(first, replay);
+		assertEquals("run 1", replay.getBody());
+	}
+
+	@Test
+	void keyIsScopedToPlayerAndAction() {
+		Counting action = new Counting(HttpStatus.OK);
+
+		cache.call("s", "p", "roll", "k1", List.of(), action);
+		cache.call("s", "q", "roll", "k1", List.of(), action);
+		cache.call("s", "p", "move", "k1", List.of(), action);
+		cache.call("t", "p", "roll", "k1", List.of(), action);
+
+		assertEquals(4, action.runs.get());
+	}
+
+	@Test
+	void keyReusedWithOtherParametersIs422() {
+		Counting action = new Counting(HttpStatus.OK);
+
+		cache.call("s", "p", "move", "k1", List.of("n1"), action);
+		ResponseEntity<String> reused = cache.call("s", "p", "move", "k1", List.of("n2"), action);
+
+		assertEquals(1, action.runs.get());
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+		// The original answer is still there for a true retry.
+		assertEquals("run 1", cache.call("s", "p", "move", "k1", List.of("n1"), action).getBody());
+	}
+
+	@Test
+	void lockedResponseIsNotRemembered() {
+		Counting locked = new Counting(HttpStatus.LOCKED);
+		assertEquals(HttpStatus.LOCKED, cache.call("s", "p", "roll", "k1", List.of(), locked).getStatusCode());
+
+		Counting ok = new Counting(HttpStatus.OK);
+		ResponseEntity<String> retry = cache.call("s", "p", "roll", "k1", List.of(), ok);
+
+		assertEquals(1, ok.runs.get());
+		assertEquals(HttpStatus.OK, retry.getStatusCode());
+	}
+
+	@Test
+	void entriesExpireAfterRetainMs() {
+		Counting action = new Counting(HttpStatus.OK);
+		cache.call("s", "p", "roll", "k1", List.of(), action);
+
+		now += IdempotencyCache.RETAIN_MS;
+		cache.call("s", "p", "roll", "k1", List.of(), action);
+		assertEquals(1, action.runs.get());
+
+		now += 1;
+		ResponseEntity<String> late = cache.call("s", "p", "roll", "k1", List.of(), action);
+		assertEquals(2, action.runs.get());
+		assertEquals("run 2", late.getBody());
+	}
+
+	private static final class Counting implements Supplier<ResponseEntity<String>> {
+		final AtomicInteger runs = new AtomicInteger();
+		final HttpStatus status;
+
+		Counting(HttpStatus status) {
+			this.status = status;
+		}
+
+		@Override
+		public ResponseEntity<String> get() {
+			return ResponseEntity.status(status).body("run " + runs.incrementAndGet());
+		}
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.codeconquer.server.service;
+
+import com.codeconquer.server.repository.SessionCodeCursorRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Codes are distinct because positions are: the permutation must not map two positions to
+ * one value, and instances sharing the cursor must never get the same position.
+ */
+@SpringBootTest
+class SessionCodeAllocatorTest {
+
+	// 2^20 positions per window: enough to catch a collision, cheap enough to sort.
+	private static final int WINDOW = 1 << 20;
+
+	@Autowired
+	private SessionCodeCursorRepository cursorRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void permuteIsABijectionOnSampledWindows() {
+		for (long key : new long[]{0L, 42L, -7_046_029_254_386_353_131L}) {
+			assertDistinctInRange(0, key);
+			assertDistinctInRange(SessionCodeAllocator.CODE_SPACE / 2, key);
+			assertDistinctInRange(SessionCodeAllocator.CODE_SPACE - WINDOW, key);
+		}
+	}
+
+	@Test
+	void encodeSpellsSixCharactersOfTheAlphabet() {
+		long[] values = {0, 1, 31, 32, SessionCodeAllocator.CODE_SPACE / 2, SessionCodeAllocator.CODE_SPACE - 1};
+		for (long value : values) assertCode(SessionCodeAllocator.encode(value));
+		for (long position = 0; position < 10_000; position++) {
+			assertCode(SessionCodeAllocator.encode(SessionCodeAllocator.permute(position, 42L)));
+		}
+		assertEquals("AAAAAA", SessionCodeAllocator.encode(0));
+		assertEquals("999999", SessionCodeAllocator.encode(SessionCodeAllocator.CODE_SPACE - 1));
+	}
+
+	@Test
+	void allocatorsSharingTheCursorNeverHandOutTheSameCode() throws Exception {
+		int perAllocator = SessionCodeAllocator.BLOCK_SIZE * 20 + 7;
+		List<SessionCodeAllocator> allocators = List.of(
+				new SessionCodeAllocator(cursorRepository, transactionManager),
+				new SessionCodeAllocator(cursorRepository, transactionManager));
+
+		ExecutorService pool = Executors.newFixedThreadPool(allocators.size());
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<List<String>>> results = new ArrayList<>();
+			for (SessionCodeAllocator allocator : allocators) {
+				results.add(pool.submit(() -> {
+					start.await();
+					List<String> codes = new ArrayList<>(perAllocator);
+					for (int i = 0; i < perAllocator; i++) codes.add(allocator.next());
+					return codes;
+				}));
+			}
+			start.countDown();
+
+			Set<String> all = new HashSet<>();
+			for (Future<List<String>> result : results) all.addAll(result.get());
+			assertEquals(perAllocator * allocators.size(), all.size());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static void assertDistinctInRange(long from, long key) {
+		long[] values = new long[WINDOW];
+		for (int i = 0; i < WINDOW; i++) {
+			long v = SessionCodeAllocator.permute(from + i, key);
+			if (v < 0 || v >= SessionCodeAllocator.CODE_SPACE) throw new AssertionError("permute(" + (from + i) + ") = " + v);
+			values[i] = v;
+		}
+		Arrays.sort(values);
+		for (int i = 1; i < WINDOW; i++) {
+			if (values[i] == values[i - 1]) {
+				throw new AssertionError("two positions from " + from + " map to " + values[i] + " (key " + key + ")");
+			}
+		}
+	}
+
+	private static void assertCode(String code) {
+		assertEquals(SessionCodeAllocator.CODE_LENGTH, code.length(), code);
+		for (char c : code.toCharArray()) {
+			assertTrue(SessionCodeAllocator.ALPHABET.indexOf(c) >= 0, code);
+		}
+	}
+
+}